@@ -1,68 +1,252 @@
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class AICreature {
     // Enum for locomotion types (used by AdvancedAICreature and triggerPlanetaryCataclysm)
-    public enum Locomotion { SWIMMING, CRAWLING, BIPEDAL, QUADRUPEDAL, FLYING }
+    public enum Locomotion {
+        SWIMMING(5f), CRAWLING(2f), BIPEDAL(4f), QUADRUPEDAL(6f), FLYING(12f);
+
+        // planet units moved per tick by creatures without a locomotion type
+        public static final float DEFAULT_SPEED = 3f;
+
+        private final float speed;
+
+        Locomotion(float speed) {
+            this.speed = speed;
+        }
+
+        /** Planet units moved per tick (see PopulationStore.moveAll). */
+        public float speed() {
+            return speed;
+        }
+
+        public static float speedOf(Locomotion locomotion) {
+            return locomotion == null ? DEFAULT_SPEED : locomotion.speed;
+        }
+    }
     
+    // Primary trait storage: ordered interned ids (with spare capacity for
+    // in-place edits) plus a membership bitset. `attributes` is a lazily
+    // materialized String[] view kept for compatibility; null when stale.
+    private int[] traitIds = new int[8];
+    private int traitCount;
+    private final TraitSet traits = new TraitSet();
     private String[] attributes;
     protected Locomotion locomotion = null;  // protected so AdvancedAICreature can access it
-    private int age = 0;
     private double mutationChance = 0.25; // base chance to mutate each tick
-    private int health = 100;
-    private int totalDamageTaken = 0;
-    private int mutationCount = 0;
-    private int stableGenerations = 0;
-    private int adaptiveCharges = 2; // charges consumed when mitigating missing traits
-    private static final String[] DEFAULT_TRAITS = {
-        "adaptive", "resilient", "quick-learner", "strong-sense", "agile",
-        "fragile", "slow-reaction", "forgetful", "weak-sense"
-    };
-    private static int nextLineageId = 1;
-    private final int lineageId;
-
-    public AICreature(String[] attributes) {
-        this.attributes = attributes;
-        this.lineageId = nextLineageId++;
+    // Primitive state (age, health, damage, mutations, stability, adaptive charges,
+    // lineage) lives in the store's column arrays at `slot`.
+    private final PopulationStore store;
+    private final int slot;
+    // genetic code cache, valid while it matches the store's modification counter
+    private String geneticCode;
+    private int geneticCodeVersion;
+    // trait part of CombatSystem.computeScore and the rules it was computed
+    // with; null until computed and after the traits change
+    private int combatTraitScore;
+    private CombatRules combatTraitRules;
+
+    public AICreature(PopulationStore store, String[] attributes) {
+        this.store = store;
+        this.slot = store.allocate(this);
+        setAttributes(attributes);
+    }
+
+    // creature carrying traitIds[0, traitCount), e.g. an offspring (see ReproductionEngine)
+    AICreature(PopulationStore store, int[] traitIds, int traitCount) {
+        this.store = store;
+        this.slot = store.allocate(this);
+        setTraitIds(traitIds, traitCount);
+    }
+
+    // creature of a checkpoint carrying ids[from, from + count); its slot's
+    // columns were restored with the store (see PopulationStore.readFrom)
+    AICreature(PopulationStore store, int slot, int[] ids, int from, int count, Locomotion locomotion) {
+        this.store = store;
+        this.slot = store.adopt(this, slot);
+        if (traitIds.length < count) traitIds = new int[count];
+        System.arraycopy(ids, from, traitIds, 0, count);
+        traitCount = count;
+        for (int i = 0; i < count; i++) traits.add(traitIds[i]);
+        this.locomotion = locomotion;
+    }
+
+    PopulationStore store() {
+        return store;
     }
 
+    int slot() {
+        return slot;
+    }
+
+    /**
+     * Compatibility view of the trait list, in insertion order.
+     * Callers must not modify the returned array.
+     */
     public String[] getAttributes() {
-        return attributes;
+        String[] view = attributes;
+        if (view == null) {
+            view = new String[traitCount];
+            for (int i = 0; i < view.length; i++) view[i] = TraitDictionary.name(traitIds[i]);
+            attributes = view;
+        }
+        return view;
     }
 
     public void setAttributes(String[] newAttributes) {
+        beforeTraitEdit();
+        if (traitIds.length < newAttributes.length) traitIds = new int[newAttributes.length];
+        traits.clear();
+        for (int i = 0; i < newAttributes.length; i++) {
+            traitIds[i] = TraitDictionary.intern(newAttributes[i]);
+            traits.add(traitIds[i]);
+        }
+        this.traitCount = newAttributes.length;
         this.attributes = newAttributes;
+        this.combatTraitRules = null;
+        store.traitsModified(slot);
+    }
+
+    // replace the trait list with ids[0, count), without going through names
+    void setTraitIds(int[] ids, int count) {
+        beforeTraitEdit();
+        if (traitIds.length < count) traitIds = new int[Math.max(8, count)];
+        System.arraycopy(ids, 0, traitIds, 0, count);
+        traitCount = count;
+        traits.clear();
+        for (int i = 0; i < count; i++) traits.add(ids[i]);
+        traitsChanged();
+    }
+
+    public int getTraitId(int index) {
+        if (index >= traitCount) throw new IndexOutOfBoundsException("Trait index " + index + " of " + traitCount);
+        return traitIds[index];
+    }
+
+    // --- in-place trait edits (used by MutationEngine); duplicates are allowed ---
+
+    void addTraitId(int id) {
+        beforeTraitEdit();
+        if (traitCount == traitIds.length) traitIds = Arrays.copyOf(traitIds, traitCount * 2);
+        traitIds[traitCount++] = id;
+        traits.add(id);
+        traitsChanged();
+    }
+
+    /**
+     * Remove the trait at {@code index}, keeping the order of the rest.
+     * Returns the removed trait id.
+     */
+    int removeTraitAt(int index) {
+        int id = getTraitId(index);
+        beforeTraitEdit();
+        System.arraycopy(traitIds, index + 1, traitIds, index, traitCount - index - 1);
+        traitCount--;
+        if (!containsId(id)) traits.remove(id);
+        traitsChanged();
+        return id;
+    }
+
+    void replaceTraitAt(int index, int id) {
+        int old = getTraitId(index);
+        beforeTraitEdit();
+        traitIds[index] = id;
+        if (!containsId(old)) traits.remove(old);
+        traits.add(id);
+        traitsChanged();
+    }
+
+    // lets the store's change journal see the trait list before it is edited
+    private void beforeTraitEdit() {
+        store.journal().beforeEdit(slot, traitIds, traitCount);
+    }
+
+    private void traitsChanged() {
+        attributes = null;
+        combatTraitRules = null;
+        store.traitsModified(slot);
+    }
+
+    /**
+     * Trait contribution to the combat score (see {@link CombatRules}),
+     * computed once per trait edit or rules change instead of on every read.
+     */
+    int getCombatTraitScore() {
+        CombatRules rules = CombatSystem.getRules();
+        if (combatTraitRules != rules) {
+            combatTraitScore = rules.score(traitIds, traitCount);
+            combatTraitRules = rules;
+        }
+        return combatTraitScore;
+    }
+
+    private boolean containsId(int id) {
+        for (int i = 0; i < traitCount; i++) if (traitIds[i] == id) return true;
+        return false;
+    }
+
+    void incrementMutationCount() {
+        store.mutationCount[slot]++;
+        store.modified(slot);
+    }
+
+    double getMutationChance() {
+        return mutationChance;
+    }
+
+    /**
+     * Membership bitset of this creature's traits. Read-only for callers.
+     */
+    public TraitSet getTraits() {
+        return traits;
+    }
+
+    public boolean hasTrait(int traitId) {
+        return traits.contains(traitId);
+    }
+
+    public boolean hasTrait(String trait) {
+        return traits.contains(trait);
+    }
+
+    public int getTraitCount() {
+        return traitCount;
+    }
+
+    // copy the ordered trait ids to dst[at, at + getTraitCount())
+    void copyTraitIds(int[] dst, int at) {
+        System.arraycopy(traitIds, 0, dst, at, traitCount);
     }
 
     public int getAge() {
-        return age;
+        return store.age[slot];
     }
 
     public void incrementAge() {
-        this.age++;
+        store.age[slot]++;
+        store.modified(slot);
     }
 
     public int getHealth() {
-        return health;
+        return store.health[slot];
     }
 
     public void reduceHealth(int amount) {
-        this.totalDamageTaken += amount;
-        this.health = Math.max(0, this.health - amount);
+        store.totalDamageTaken[slot] += amount;
+        store.health[slot] = Math.max(0, store.health[slot] - amount);
+        store.modified(slot);
     }
 
     public int getTotalDamageTaken() {
-        return totalDamageTaken;
+        return store.totalDamageTaken[slot];
     }
 
     public int getMutationCount() {
-        return mutationCount;
+        return store.mutationCount[slot];
     }
 
     public int getLineageId() {
-        return lineageId;
+        return store.lineageId[slot];
     }
 
     /**
@@ -71,41 +255,82 @@ public class AICreature {
      * Format: G{lineage}-A{age}-M{mutations}-D{damage}-H{health}-AC{adaptiveCharges}-{traits}
      */
     public String getGeneticCode() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("G").append(lineageId);
-        sb.append("-A").append(age);
-        sb.append("-M").append(mutationCount);
-        sb.append("-D").append(totalDamageTaken);
-        sb.append("-H").append(health);
-        sb.append("-AC").append(adaptiveCharges);
-
-        // include up to first three attribute tokens (shortened)
-        for (int i = 0; i < Math.min(3, attributes.length); i++) {
-            String a = attributes[i].replaceAll("[^A-Za-z]", "").toUpperCase();
-            if (a.length() > 6) a = a.substring(0, 6);
-            sb.append("-").append(a);
+        int version = store.version[slot];
+        String code = geneticCode;
+        if (code != null && geneticCodeVersion == version) return code;
+
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("G").append(getLineageId());
+        sb.append("-A").append(getAge());
+        sb.append("-M").append(getMutationCount());
+        sb.append("-D").append(getTotalDamageTaken());
+        sb.append("-H").append(getHealth());
+        sb.append("-AC").append(getAdaptiveCharges());
+
+        // include up to first three attribute tokens (shortened, cached per trait)
+        for (int i = 0; i < Math.min(3, traitCount); i++) {
+            sb.append("-").append(Genome.token(traitIds[i]));
         }
-        return sb.toString();
+        code = sb.toString();
+        geneticCode = code;
+        geneticCodeVersion = version;
+        return code;
+    }
+
+    /**
+     * Packed binary genome (see {@link Genome}) for hashing, equality and compact storage.
+     */
+    public long[] getGenome() {
+        return Genome.encode(this);
+    }
+
+    /**
+     * Modification counter; changes whenever state visible in the genetic code changes.
+     */
+    public int getVersion() {
+        return store.version[slot];
+    }
+
+    public float getX() {
+        return store.x[slot];
     }
 
+    public float getY() {
+        return store.y[slot];
+    }
+
+    /**
+     * Place the creature on the planet surface. Callers tracking positions in a
+     * {@link SpatialGrid} must tell it afterwards ({@link SpatialGrid#moved}).
+     */
+    public void setPosition(float x, float y) {
+        store.x[slot] = x;
+        store.y[slot] = y;
+    }
+
+    /**
+     * Health above zero and still in its store; a handle whose slot was
+     * released (and may already hold a newborn) is dead.
+     */
     public boolean isAlive() {
-        return this.health > 0;
+        return store.health[slot] > 0 && store.handle(slot) == this;
     }
 
     public void resetStability() {
-        this.stableGenerations = 0;
+        store.stableGenerations[slot] = 0;
     }
 
     public int getAdaptiveCharges() {
-        return adaptiveCharges;
+        return store.adaptiveCharges[slot];
     }
 
     /**
      * Consume up to `requested` adaptive charges. Returns number of charges actually used.
      */
     public int useAdaptive(int requested) {
-        int used = Math.max(0, Math.min(requested, adaptiveCharges));
-        adaptiveCharges -= used;
+        int used = Math.max(0, Math.min(requested, store.adaptiveCharges[slot]));
+        store.adaptiveCharges[slot] -= used;
+        store.modified(slot);
         return used;
     }
 
@@ -113,7 +338,8 @@ public class AICreature {
      * Fully recharge adaptive charges (reset to 2).
      */
     public void rechargeAdaptive() {
-        this.adaptiveCharges = 2;
+        store.adaptiveCharges[slot] = 2;
+        store.modified(slot);
     }
 
     /**
@@ -133,16 +359,25 @@ public class AICreature {
     }
 
     public void incrementStableAndMaybeHeal() {
-        this.stableGenerations++;
-        if (this.stableGenerations >= 3 && this.isAlive()) {
+        incrementStableAndMaybeHeal(TextEventSink.STDOUT);
+    }
+
+    public void incrementStableAndMaybeHeal(SimulationEventSink events) {
+        int stable = ++store.stableGenerations[slot];
+        if (stable >= 3 && this.isAlive()) {
             // heal +17 per cycle when stable
             this.heal(17);
-            System.out.println("  - " + this.toString() + " regenerates +17 health (stable=" + this.stableGenerations + ")");
+            if (events.isEnabled()) events.accept(new SimulationEvent.RegenerationEvent(SimulationEvent.Subject.of(this), 17, stable));
         }
     }
 
+    public int getStableGenerations() {
+        return store.stableGenerations[slot];
+    }
+
     public void heal(int amount) {
-        this.health = Math.min(100, this.health + amount);
+        store.health[slot] = Math.min(100, store.health[slot] + amount);
+        store.modified(slot);
     }
 
     /**
@@ -151,142 +386,32 @@ public class AICreature {
      * lightweight and deterministic in shape so the evolution manager can still
      * orchestrate higher-level behaviors.
      */
-    public void tickAndMaybeMutate(Random random, String planetType, String atmosphere) {
-        incrementAge();
-
-        // Determine environmental pressure based on planet type / atmosphere
-        double environmentalPressure = 0.0;
-        if (atmosphere != null) {
-            if (atmosphere.contains("Carbon")) {
-                if (!Arrays.asList(attributes).contains("Toxic Resistance")) environmentalPressure += 0.4;
-            } else if (atmosphere.contains("Methane")) {
-                if (!Arrays.asList(attributes).contains("Methane Breather")) environmentalPressure += 0.4;
-            } else if (atmosphere.contains("Nitrogen")) {
-                if (!Arrays.asList(attributes).contains("Nitrogen Tolerance")) environmentalPressure += 0.2;
-            } else if (atmosphere.contains("Oxygen")) {
-                if (!Arrays.asList(attributes).contains("High Endurance")) environmentalPressure += 0.1;
-            }
-        }
-        if (planetType != null) {
-            if (planetType.equals("Ocean") && !Arrays.asList(attributes).contains("Swimming")) environmentalPressure += 0.3;
-            if (planetType.equals("Lava") && !Arrays.asList(attributes).contains("Heat Resistance")) environmentalPressure += 0.3;
-            if (planetType.equals("Ice") && !Arrays.asList(attributes).contains("Cold Resistance")) environmentalPressure += 0.3;
-            if (planetType.equals("Desert") && !Arrays.asList(attributes).contains("Water Conservation")) environmentalPressure += 0.3;
-        }
+    public void tickAndMaybeMutate(RandomGenerator random, String planetType, String atmosphere) {
+        tickAndMaybeMutate(random, EnvironmentProfile.of(planetType, atmosphere));
+    }
 
-        // If creature is missing vital traits, boost chance further to encourage guided evolution
-        List<String> missingVital = new ArrayList<>();
-        if (atmosphere != null) {
-            if (atmosphere.contains("Carbon") && !Arrays.asList(attributes).contains("Toxic Resistance")) missingVital.add("Toxic Resistance");
-            if (atmosphere.contains("Methane") && !Arrays.asList(attributes).contains("Methane Breather")) missingVital.add("Methane Breather");
-            if (atmosphere.contains("Nitrogen") && !Arrays.asList(attributes).contains("Nitrogen Tolerance")) missingVital.add("Nitrogen Tolerance");
-            if (atmosphere.contains("Oxygen") && !Arrays.asList(attributes).contains("High Endurance")) missingVital.add("High Endurance");
-        }
-        if (planetType != null) {
-            if (planetType.equals("Ocean") && !Arrays.asList(attributes).contains("Swimming")) missingVital.add("Swimming");
-            if (planetType.equals("Lava") && !Arrays.asList(attributes).contains("Heat Resistance")) missingVital.add("Heat Resistance");
-            if (planetType.equals("Ice") && !Arrays.asList(attributes).contains("Cold Resistance")) missingVital.add("Cold Resistance");
-            if (planetType.equals("Desert") && !Arrays.asList(attributes).contains("Water Conservation")) missingVital.add("Water Conservation");
-        }
+    /**
+     * Same as above, reading pressure and vital traits from a pre-compiled
+     * environment profile instead of parsing the environment strings.
+     */
+    public void tickAndMaybeMutate(RandomGenerator random, EnvironmentProfile environment) {
+        tickAndMaybeMutate(random, environment, MutationEngine.LOGGING);
+    }
 
-        double effectiveMutationChance = mutationChance + environmentalPressure + (missingVital.isEmpty() ? 0.0 : 0.25);
-
-        if (random.nextDouble() < effectiveMutationChance) {
-            List<String> currentAttributes = new ArrayList<>(Arrays.asList(attributes));
-
-            int mutationType = random.nextInt(3); // 0: add, 1: remove, 2: modify
-            System.out.print("  - " + this.toString() + " internal mutation: ");
-
-            switch (mutationType) {
-                case 0: // add a trait; prefer missing vital traits
-                    if (!missingVital.isEmpty() && random.nextDouble() < 0.8) {
-                        String vital = missingVital.get(random.nextInt(missingVital.size()));
-                        if (!currentAttributes.contains(vital)) {
-                            currentAttributes.add(vital);
-                            System.out.println("re-evolved vital trait '" + vital + "'");
-                        } else {
-                            System.out.println("vital trait already present, no-op");
-                        }
-                    } else {
-                        // pick a trait from DEFAULT_TRAITS that isn't already present
-                        List<String> pool = new ArrayList<>();
-                        for (String t : DEFAULT_TRAITS) if (!currentAttributes.contains(t)) pool.add(t);
-                        if (!pool.isEmpty()) {
-                            String pick = pool.get(random.nextInt(pool.size()));
-                            currentAttributes.add(pick);
-                            System.out.println("added '" + pick + "'");
-                        } else {
-                            // fallback to generated mutated trait
-                            String newTrait = "mutated_trait_" + (100 + random.nextInt(900));
-                            currentAttributes.add(newTrait);
-                            System.out.println("added '" + newTrait + "' (fallback)");
-                        }
-                    }
-                    break;
-                case 1: // remove a random trait
-                    if (!currentAttributes.isEmpty()) {
-                        String removed = currentAttributes.remove(random.nextInt(currentAttributes.size()));
-                        System.out.println("removed '" + removed + "'");
-                    } else {
-                        System.out.println("no traits to remove");
-                    }
-                    break;
-                case 2: // modify an existing trait
-                    if (!currentAttributes.isEmpty()) {
-                        // attempt several times to find a meaningful modification that doesn't duplicate
-                        boolean modifiedOk = false;
-                        for (int attempt = 0; attempt < 5 && !modifiedOk; attempt++) {
-                            int idx = random.nextInt(currentAttributes.size());
-                            String oldTrait = currentAttributes.get(idx);
-                            String modified = oldTrait;
-
-                            if (oldTrait.contains("sense")) {
-                                modified = oldTrait.replace("sense", "perception");
-                            } else if (oldTrait.startsWith("level:")) {
-                                try {
-                                    int lvl = Integer.parseInt(oldTrait.split(":" )[1]);
-                                    lvl = Math.min(lvl + 1, 5);
-                                    modified = "level:" + lvl;
-                                } catch (Exception e) {
-                                    modified = "level:1";
-                                }
-                            } else if (oldTrait.contains("speed:low")) {
-                                modified = oldTrait.replace("speed:low", "speed:medium");
-                            } else {
-                                // pick a replacement from DEFAULT_TRAITS not already present
-                                for (String cand : DEFAULT_TRAITS) {
-                                    if (!currentAttributes.contains(cand) && !cand.equals(oldTrait)) {
-                                        modified = cand;
-                                        break;
-                                    }
-                                }
-                            }
-
-                            if (!modified.equals(oldTrait) && !currentAttributes.contains(modified)) {
-                                currentAttributes.set(idx, modified);
-                                System.out.println("modified '" + oldTrait + "' -> '" + modified + "'");
-                                modifiedOk = true;
-                            }
-                        }
-                        if (!modifiedOk) System.out.println("modification resulted in duplicate/no-op");
-                    } else {
-                        System.out.println("no traits to modify");
-                    }
-                    break;
-            }
-
-            this.attributes = currentAttributes.toArray(new String[0]);
-            this.mutationCount++;
-        }
+    /**
+     * Same as above, reporting through the given engine (e.g. MutationEngine.QUIET).
+     */
+    public void tickAndMaybeMutate(RandomGenerator random, EnvironmentProfile environment, MutationEngine engine) {
+        engine.tick(this, random, environment);
     }
 
     @Override
     public String toString() {
         return "AICreature{" +
-                "attributes=" + Arrays.toString(attributes) +
-                ", age=" + age +
-                ", health=" + health +
-                ", lineage=" + lineageId +
+                "attributes=" + Arrays.toString(getAttributes()) +
+                ", age=" + getAge() +
+                ", health=" + getHealth() +
+                ", lineage=" + getLineageId() +
                 ", dna=" + getGeneticCode() +
                 '}';
     }
@@ -1,5 +1,6 @@
 import java.util.Arrays;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Advanced AI Creature extending AICreature with physical attributes,
@@ -11,20 +12,18 @@ public class AdvancedAICreature extends AICreature {
     // Gender enum for strict type definitions
     public enum Gender { MALE, FEMALE }
 
-    // Physical attributes
-    private Gender gender;
+    // Physical attributes (gender, weight in kg and height in meters live in
+    // the PopulationStore columns alongside the inherited primitive state)
     // Note: locomotion field is inherited from AICreature
     private String skinType;        // Skin, scales, feathers, chitin
     private String color;
     private String shape;           // Body shape
-    private double weight;          // kg
-    private double height;          // meters
-    private Random random;
 
     /**
      * Create an AdvancedAICreature with full physical attributes.
      * Applies sexual dimorphism rules.
      * 
+     * @param store Store the creature's slot is allocated in
      * @param startLocomotion Movement type
      * @param skinType Type of skin/covering
      * @param baseColor Base color
@@ -33,23 +32,31 @@ public class AdvancedAICreature extends AICreature {
      * @param baseHeight Base height in meters
      * @param initialSkills Skill/trait array
      */
-    public AdvancedAICreature(AICreature.Locomotion startLocomotion, String skinType, String baseColor, 
+    public AdvancedAICreature(PopulationStore store, AICreature.Locomotion startLocomotion, String skinType, String baseColor,
                               String shape, double baseWeight, double baseHeight, String[] initialSkills) {
+        this(store, ThreadLocalRandom.current(), startLocomotion, skinType, baseColor, shape, baseWeight, baseHeight, initialSkills);
+    }
+
+    /**
+     * Same as above, drawing the creature's gender from the given stream
+     * (e.g. a SeedTree partition).
+     */
+    public AdvancedAICreature(PopulationStore store, RandomGenerator random, AICreature.Locomotion startLocomotion, String skinType,
+                              String baseColor, String shape, double baseWeight, double baseHeight, String[] initialSkills) {
         // Initialize parent with skills
-        super(initialSkills);
-        this.random = new Random();
+        super(store, initialSkills);
         
         // Assign random gender
-        this.gender = random.nextBoolean() ? Gender.MALE : Gender.FEMALE;
+        setGender(random.nextBoolean() ? Gender.MALE : Gender.FEMALE);
         
         // Apply sexual dimorphism logic
-        if (this.gender == Gender.FEMALE) {
-            this.weight = baseWeight * 0.80;      // Female 20% lighter
-            this.height = baseHeight * 0.85;      // Female 15% smaller
+        if (getGender() == Gender.FEMALE) {
+            setWeight(baseWeight * 0.80);         // Female 20% lighter
+            setHeight(baseHeight * 0.85);         // Female 15% smaller
             this.color = "Exotic " + baseColor;   // Exotic coloration
         } else {
-            this.weight = baseWeight;
-            this.height = baseHeight;
+            setWeight(baseWeight);
+            setHeight(baseHeight);
             this.color = baseColor;
         }
 
@@ -59,20 +66,25 @@ public class AdvancedAICreature extends AICreature {
     }
 
     // Getters for physical attributes
-    public Gender getGender() { return gender; }
+    public Gender getGender() {
+        byte g = store().gender[slot()];
+        return g == PopulationStore.NO_GENDER ? null : Gender.values()[g];
+    }
     public String getSkinType() { return skinType; }
     public String getColor() { return color; }
     public String getShape() { return shape; }
-    public double getWeight() { return weight; }
-    public double getHeight() { return height; }
+    public double getWeight() { return store().weight[slot()]; }
+    public double getHeight() { return store().height[slot()]; }
 
     // Setters for evolution/adaptation
-    public void setGender(Gender gender) { this.gender = gender; }
+    public void setGender(Gender gender) {
+        store().gender[slot()] = gender == null ? PopulationStore.NO_GENDER : (byte) gender.ordinal();
+    }
     public void setSkinType(String skinType) { this.skinType = skinType; }
     public void setColor(String color) { this.color = color; }
     public void setShape(String shape) { this.shape = shape; }
-    public void setWeight(double weight) { this.weight = weight; }
-    public void setHeight(double height) { this.height = height; }
+    public void setWeight(double weight) { store().weight[slot()] = weight; }
+    public void setHeight(double height) { store().height[slot()] = height; }
 
     /**
      * Compute fitness bonus based on physical attributes aligned with environment.
@@ -102,6 +114,8 @@ public class AdvancedAICreature extends AICreature {
         }
 
         // Weight/height balance
+        double weight = getWeight();
+        double height = getHeight();
         if (weight > 50 && planetType.equals("Lava")) {
             fitness += 3;  // Heavier creatures better on hot terrain
         }
@@ -116,18 +130,18 @@ public class AdvancedAICreature extends AICreature {
      * Compact representation showing gender, locomotion, physical traits.
      */
     public String getPhysicalCode() {
-        String genderCode = gender == Gender.MALE ? "M" : "F";
+        String genderCode = getGender() == Gender.MALE ? "M" : "F";
         String locomotionCode = locomotion.toString().substring(0, 3).toUpperCase();
         String skinCode = skinType.substring(0, 3).toUpperCase();
-        return String.format("%s-%s-%s-%.1f-%.2f", genderCode, locomotionCode, skinCode, weight, height);
+        return String.format("%s-%s-%s-%.1f-%.2f", genderCode, locomotionCode, skinCode, getWeight(), getHeight());
     }
 
     @Override
     public String toString() {
-        String genderStr = gender.toString().substring(0, 1);
+        String genderStr = getGender().toString().substring(0, 1);
         String skillsStr = String.join(",", Arrays.copyOf(getAttributes(), Math.min(3, getAttributes().length)));
         return String.format("[%s-G%d] %s | Mov:%s | Skin:%s | Color:%s | %.1fkg/%.2fm | Skills:{%s}",
                 genderStr, getLineageId(), getAge(), 
-                locomotion, skinType, color, weight, height, skillsStr);
+                locomotion, skinType, color, getWeight(), getHeight(), skillsStr);
     }
 }
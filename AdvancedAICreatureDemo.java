@@ -10,9 +10,11 @@ public class AdvancedAICreatureDemo {
 
         // Create sample creatures with different locomotion types
         List<AdvancedAICreature> population = new ArrayList<>();
+        PopulationStore store = new PopulationStore(16);
 
         // Aquatic swimmer
         population.add(new AdvancedAICreature(
+            store,
             AdvancedAICreature.Locomotion.SWIMMING,
             "scales",
             "Blue",
@@ -23,6 +25,7 @@ public class AdvancedAICreatureDemo {
 
         // Desert runner
         population.add(new AdvancedAICreature(
+            store,
             AdvancedAICreature.Locomotion.BIPEDAL,
             "skin",
             "Brown",
@@ -33,6 +36,7 @@ public class AdvancedAICreatureDemo {
 
         // Mountain flyer
         population.add(new AdvancedAICreature(
+            store,
             AdvancedAICreature.Locomotion.FLYING,
             "feathers",
             "White",
@@ -43,6 +47,7 @@ public class AdvancedAICreatureDemo {
 
         // Forest crawler
         population.add(new AdvancedAICreature(
+            store,
             AdvancedAICreature.Locomotion.QUADRUPEDAL,
             "fur",
             "Green",
@@ -77,6 +82,7 @@ public class AdvancedAICreatureDemo {
         
         for (int i = 0; i < 3; i++) {
             AdvancedAICreature swimmer = new AdvancedAICreature(
+                store,
                 AdvancedAICreature.Locomotion.SWIMMING,
                 "scales", "Blue", "Fish-like", 25.0, 1.2,
                 new String[]{"Swimming", "Gills"}
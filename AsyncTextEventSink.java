@@ -0,0 +1,64 @@
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * AsyncTextEventSink: text logger that formats and writes events on its own
+ * thread, so simulation threads only enqueue.
+ *
+ * Events go through a {@link PipelineStage}: they are drained from a
+ * bounded queue in batches, rendered into one buffer and written with a
+ * single print + flush per batch. When the queue is full producers block,
+ * which bounds memory if the console cannot keep up. Events are written in
+ * the order they were accepted.
+ */
+public class AsyncTextEventSink implements SimulationEventSink {
+    public static final int DEFAULT_CAPACITY = 16_384;
+    private static final int BATCH_SIZE = 1024;
+
+    private final PrintStream out;
+    private final PipelineStage<SimulationEvent> stage;
+    private final StringBuilder text = new StringBuilder(64 * 1024);  // stage thread only
+
+    public AsyncTextEventSink(PrintStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    public AsyncTextEventSink(PrintStream out, int capacity) {
+        this.out = out;
+        this.stage = new PipelineStage<>("simulation-event-writer", capacity, BATCH_SIZE, this::write);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return stage.isOpen();
+    }
+
+    @Override
+    public void accept(SimulationEvent event) {
+        stage.submit(event);
+    }
+
+    @Override
+    public void flush() {
+        stage.flush();
+    }
+
+    @Override
+    public void close() {
+        stage.close();
+    }
+
+    private void write(List<SimulationEvent> batch) {
+        String newline = System.lineSeparator();
+        for (SimulationEvent e : batch) {
+            try {
+                text.append(e.describe()).append(newline);
+            } catch (RuntimeException ex) {
+                text.append("<unprintable ").append(e.getClass().getSimpleName()).append(": ").append(ex).append('>').append(newline);
+            }
+        }
+        out.print(text);
+        out.flush();
+        text.setLength(0);
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.Arrays;
+
+/**
+ * BatchScorer: combat and competition scores for every creature of a
+ * PopulationStore in one pass over its columns, written by slot.
+ *
+ * The trait-dependent parts of the scores (combat trait score, matches with
+ * the required traits, competition bonus) are gathered into int columns and
+ * regathered only for slots whose traits changed since the last call (the
+ * store's trait versions), or for everyone when the combat rules or the
+ * required traits change. What is left is plain integer arithmetic over the
+ * health, mutation-count and gathered columns, which runs on
+ * VectorBatchKernel when jdk.incubator.vector is available (compile and run
+ * with {@code --add-modules jdk.incubator.vector}) and on the scalar loops
+ * here otherwise. Either way the results equal
+ * {@link CombatSystem#computeScore} and the planet's competition score
+ * exactly. Not thread-safe.
+ */
+public final class BatchScorer {
+    public static final int MATCH_WEIGHT = 50;     // per required trait the creature has
+    public static final int MUTATION_WEIGHT = 2;   // per mutation
+    public static final int TRAIT_BONUS = 10;
+
+    private static final int AGILE = TraitDictionary.intern("agile");
+    private static final int QUICK_LEARNER = TraitDictionary.intern("quick-learner");
+    private static final int STRONG_SENSE = TraitDictionary.intern("strong-sense");
+
+    /**
+     * Score arithmetic over {@code [0, n)} of the columns.
+     */
+    interface Kernel {
+        // out = traitScore + round(health / 10)
+        void combat(int[] traitScore, int[] health, int[] out, int n);
+
+        // out = health + matches * MATCH_WEIGHT + mutations * MUTATION_WEIGHT + bonus
+        void competition(int[] health, int[] matches, int[] mutations, int[] bonus, int[] out, int n);
+    }
+
+    static final Kernel SCALAR = new Kernel() {
+        @Override
+        public void combat(int[] traitScore, int[] health, int[] out, int n) {
+            combatRange(traitScore, health, out, 0, n);
+        }
+
+        @Override
+        public void competition(int[] health, int[] matches, int[] mutations, int[] bonus, int[] out, int n) {
+            competitionRange(health, matches, mutations, bonus, out, 0, n);
+        }
+    };
+
+    private static final Kernel BEST = loadVectorKernel();
+
+    private final PopulationStore store;
+    private final Kernel kernel;
+
+    // gathered by slot
+    private int[] traitScore = new int[0];
+    private int[] matches = new int[0];
+    private int[] bonus = new int[0];
+    private int[] seenTraitVersion = new int[0];
+    private CombatRules gatheredRules;
+    private TraitSet gatheredRequired;
+
+    /** Scorer on the vector kernel when available, scalar otherwise. */
+    public BatchScorer(PopulationStore store) {
+        this(store, BEST);
+    }
+
+    private BatchScorer(PopulationStore store, Kernel kernel) {
+        this.store = store;
+        this.kernel = kernel;
+    }
+
+    /** Scorer that always uses the scalar loops (e.g. as a baseline). */
+    public static BatchScorer scalar(PopulationStore store) {
+        return new BatchScorer(store, SCALAR);
+    }
+
+    public static boolean vectorAvailable() {
+        return BEST != SCALAR;
+    }
+
+    public boolean isVectorized() {
+        return kernel != SCALAR;
+    }
+
+    /**
+     * {@link CombatSystem#computeScore} of every live creature, by slot.
+     * {@code out} is reused when it holds {@link PopulationStore#slotCapacity()}
+     * entries; entries of free slots are unspecified.
+     */
+    public int[] combatScores(int[] out) {
+        gather(gatheredRequired);
+        int n = store.slotCapacity();
+        out = sized(out, n);
+        kernel.combat(traitScore, store.health, out, n);
+        return out;
+    }
+
+    /**
+     * Competition score of every live creature against {@code required}
+     * (see {@link #competitionScore}), by slot; {@code out} as for
+     * {@link #combatScores}. Required sets are compared by identity, so pass
+     * a new set when the requirements change instead of editing this one
+     * (EnvironmentProfile sets never change).
+     */
+    public int[] competitionScores(TraitSet required, int[] out) {
+        gather(required);
+        int n = store.slotCapacity();
+        out = sized(out, n);
+        kernel.competition(store.health, matches, store.mutationCount, bonus, out, n);
+        return out;
+    }
+
+    /**
+     * Competition score from its parts: health, a big advantage per matching
+     * required trait, a small benefit for evolvability and the trait bonus.
+     */
+    public static int competitionScore(int health, int matches, int mutations, int bonus) {
+        return health + matches * MATCH_WEIGHT + mutations * MUTATION_WEIGHT + bonus;
+    }
+
+    /** Competition bonus for agile / quick-learner and for strong-sense. */
+    public static int competitionBonus(TraitSet traits) {
+        int bonus = 0;
+        if (traits.contains(AGILE) || traits.contains(QUICK_LEARNER)) bonus += TRAIT_BONUS;
+        if (traits.contains(STRONG_SENSE)) bonus += TRAIT_BONUS;
+        return bonus;
+    }
+
+    private void gather(TraitSet required) {
+        CombatRules rules = CombatSystem.getRules();
+        boolean all = rules != gatheredRules || required != gatheredRequired;
+        int cap = store.slotCapacity();
+        if (traitScore.length < cap) {
+            int size = Math.max(cap, traitScore.length * 2);
+            traitScore = Arrays.copyOf(traitScore, size);
+            matches = Arrays.copyOf(matches, size);
+            bonus = Arrays.copyOf(bonus, size);
+            seenTraitVersion = Arrays.copyOf(seenTraitVersion, size);
+        }
+        int[] traitVersion = store.traitVersion;
+        for (int s = store.nextLive(0); s >= 0; s = store.nextLive(s + 1)) {
+            if (!all && seenTraitVersion[s] == traitVersion[s]) continue;
+            AICreature c = store.handle(s);
+            TraitSet traits = c.getTraits();
+            traitScore[s] = c.getCombatTraitScore();
+            matches[s] = required == null ? 0 : traits.countCommon(required);
+            bonus[s] = competitionBonus(traits);
+            seenTraitVersion[s] = traitVersion[s];
+        }
+        gatheredRules = rules;
+        gatheredRequired = required;
+    }
+
+    private static int[] sized(int[] out, int n) {
+        return out != null && out.length >= n ? out : new int[n];
+    }
+
+    // Math.round(t + h / 10.0) for int t and h, without the double
+    static void combatRange(int[] traitScore, int[] health, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) out[i] = traitScore[i] + Math.floorDiv(health[i] + 5, 10);
+    }
+
+    static void competitionRange(int[] health, int[] matches, int[] mutations, int[] bonus, int[] out, int from, int to) {
+        for (int i = from; i < to; i++) out[i] = competitionScore(health[i], matches[i], mutations[i], bonus[i]);
+    }
+
+    // the vector kernel only links when the jdk.incubator.vector module is present
+    private static Kernel loadVectorKernel() {
+        try {
+            return (Kernel) Class.forName("VectorBatchKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
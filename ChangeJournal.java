@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/**
+ * ChangeJournal: which creatures of a {@link PopulationStore} had their
+ * traits edited since {@link #begin()}, and what their trait list was
+ * before the first of those edits.
+ *
+ * AICreature's trait edits call {@link #beforeEdit} before touching the
+ * trait list. While the journal is open, the first edit of a slot copies
+ * its ordered trait ids into a per-slot buffer (reused across windows), so
+ * a generation costs one copy per creature that actually changed and
+ * nothing for the rest. Entries are per slot: creatures updated on
+ * different threads never share one, but the journal must not be opened
+ * or closed while edits are in flight.
+ */
+public final class ChangeJournal {
+    private static final int[] NO_TRAITS = new int[0];
+
+    private int epoch;            // window counter; slots journaled in this window carry it
+    private boolean open;
+    private int[] journaledIn;    // per slot: epoch of its snapshot
+    private int[][] before;       // per slot: trait ids before the first edit
+    private int[] beforeCount;
+
+    ChangeJournal(int capacity) {
+        journaledIn = new int[capacity];
+        before = new int[capacity][];
+        beforeCount = new int[capacity];
+    }
+
+    /** Start a new window; changes recorded by the previous one are forgotten. */
+    public void begin() {
+        epoch++;
+        open = true;
+    }
+
+    /** Stop recording; what was recorded stays readable until the next {@link #begin()}. */
+    public void end() {
+        open = false;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /** True if the creature in {@code slot} was edited in the current (or last) window. */
+    public boolean changed(int slot) {
+        return epoch != 0 && journaledIn[slot] == epoch;
+    }
+
+    /** Number of traits the creature in {@code slot} had before its first edit. */
+    public int beforeCount(int slot) {
+        return changed(slot) ? beforeCount[slot] : 0;
+    }
+
+    /** Trait id at {@code index} of the creature's list before its first edit. */
+    public int beforeId(int slot, int index) {
+        if (!changed(slot) || index >= beforeCount[slot]) {
+            throw new IndexOutOfBoundsException("Journaled trait " + index + " of slot " + slot);
+        }
+        return before[slot][index];
+    }
+
+    // called by AICreature with its current trait ids before every edit
+    void beforeEdit(int slot, int[] traitIds, int traitCount) {
+        if (!open || journaledIn[slot] == epoch) return;
+        int[] copy = before[slot];
+        if (copy == null || copy.length < traitCount) {
+            copy = traitCount == 0 ? NO_TRAITS : new int[Math.max(8, traitCount)];
+            before[slot] = copy;
+        }
+        System.arraycopy(traitIds, 0, copy, 0, traitCount);
+        beforeCount[slot] = traitCount;
+        journaledIn[slot] = epoch;
+    }
+
+    // a new creature in slot starts with no journal entry
+    void forget(int slot) {
+        journaledIn[slot] = 0;
+    }
+
+    void grow(int capacity) {
+        journaledIn = Arrays.copyOf(journaledIn, capacity);
+        before = Arrays.copyOf(before, capacity);
+        beforeCount = Arrays.copyOf(beforeCount, capacity);
+    }
+}
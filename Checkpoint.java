@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checkpoint: binary file format for the state of a running world (see
+ * {@link PlanetGenerator#saveCheckpoint} and
+ * {@link PlanetGenerator#restoreCheckpoint}).
+ *
+ * A checkpoint is a little-endian stream of ints, longs, floats, doubles,
+ * length-prefixed UTF-8 strings and primitive arrays, after an 8-byte
+ * header (magic, {@link #VERSION}). Arrays are the column arrays of the
+ * population as they are in memory, so both directions are bulk copies:
+ * {@link Out} fills one reusable direct buffer and writes it through a
+ * FileChannel to a temporary file that is forced and then moved over the
+ * old checkpoint, and {@link In} maps the file read-only and copies each
+ * array straight out of the mapping. A crash while writing leaves the
+ * previous checkpoint in place.
+ */
+public final class Checkpoint {
+    public static final String FILE_NAME = "checkpoint.bin";
+    public static final int VERSION = 2;
+
+    private static final int MAGIC = 0x4B435850;   // "PXCK"
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Checkpoint being written. Reuse one across checkpoints: its direct
+     * buffer only grows, so later checkpoints allocate nothing.
+     */
+    static final class Out {
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        /** Drop what was written and start a new checkpoint. */
+        Out begin() {
+            buffer.clear();
+            return putInt(MAGIC).putInt(VERSION);
+        }
+
+        Out putInt(int v) {
+            ensure(4);
+            buffer.putInt(v);
+            return this;
+        }
+
+        Out putLong(long v) {
+            ensure(8);
+            buffer.putLong(v);
+            return this;
+        }
+
+        Out putFloat(float v) {
+            ensure(4);
+            buffer.putFloat(v);
+            return this;
+        }
+
+        Out putDouble(double v) {
+            ensure(8);
+            buffer.putDouble(v);
+            return this;
+        }
+
+        /** Length-prefixed UTF-8; null is written as length -1. */
+        Out putString(String s) {
+            if (s == null) return putInt(-1);
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            return putBytes(bytes, 0, bytes.length);
+        }
+
+        Out putBytes(byte[] a, int from, int n) {
+            ensure(n);
+            buffer.put(a, from, n);
+            return this;
+        }
+
+        Out putInts(int[] a, int from, int n) {
+            ensure(4L * n);
+            buffer.asIntBuffer().put(a, from, n);
+            buffer.position(buffer.position() + 4 * n);
+            return this;
+        }
+
+        Out putFloats(float[] a, int from, int n) {
+            ensure(4L * n);
+            buffer.asFloatBuffer().put(a, from, n);
+            buffer.position(buffer.position() + 4 * n);
+            return this;
+        }
+
+        Out putDoubles(double[] a, int from, int n) {
+            ensure(8L * n);
+            buffer.asDoubleBuffer().put(a, from, n);
+            buffer.position(buffer.position() + 8 * n);
+            return this;
+        }
+
+        /**
+         * Write the checkpoint to {@code file}: into a sibling temporary file,
+         * forced to disk, then moved over {@code file} in one step.
+         */
+        void writeTo(Path file) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            ByteBuffer data = buffer.duplicate().flip();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (data.hasRemaining()) channel.write(data);
+                channel.force(false);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        private void ensure(long bytes) {
+            if (buffer.remaining() >= bytes) return;
+            long needed = buffer.position() + bytes;
+            if (needed > Integer.MAX_VALUE) throw new IllegalStateException("Checkpoint larger than 2 GB");
+            int cap = (int) Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buffer.capacity()));
+            ByteBuffer grown = ByteBuffer.allocateDirect(cap).order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Checkpoint being read, in the order it was written, from a read-only
+     * mapping of the file. Reading past the end throws
+     * {@link BufferUnderflowException}.
+     */
+    static final class In {
+        private final MappedByteBuffer buffer;
+
+        private In(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /** Map {@code file} and check its header. */
+        static In open(Path file) throws IOException {
+            if (!Files.exists(file)) throw new NoSuchFileException(file.toString(), null, "no checkpoint written yet");
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < 8 || mapped.getInt() != MAGIC) throw new IOException(file + " is not a checkpoint");
+            int version = mapped.getInt();
+            if (version != VERSION) throw new IOException(file + " is a version " + version + " checkpoint, expected " + VERSION);
+            return new In(mapped);
+        }
+
+        int getInt() {
+            return buffer.getInt();
+        }
+
+        long getLong() {
+            return buffer.getLong();
+        }
+
+        float getFloat() {
+            return buffer.getFloat();
+        }
+
+        double getDouble() {
+            return buffer.getDouble();
+        }
+
+        String getString() {
+            int n = buffer.getInt();
+            if (n < 0) return null;
+            byte[] bytes = new byte[n];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void getBytes(byte[] dst, int n) {
+            buffer.get(dst, 0, n);
+        }
+
+        void getInts(int[] dst, int n) {
+            buffer.asIntBuffer().get(dst, 0, n);
+            buffer.position(buffer.position() + 4 * n);
+        }
+
+        void getFloats(float[] dst, int n) {
+            buffer.asFloatBuffer().get(dst, 0, n);
+            buffer.position(buffer.position() + 4 * n);
+        }
+
+        void getDoubles(double[] dst, int n) {
+            buffer.asDoubleBuffer().get(dst, 0, n);
+            buffer.position(buffer.position() + 8 * n);
+        }
+
+        /** Length of an array section, checked against what is left of the file. */
+        int getLength(int bytesPerElement) {
+            int n = buffer.getInt();
+            if (n < 0 || (long) n * bytesPerElement > buffer.remaining()) {
+                throw new IllegalStateException("Array of " + n + " elements at offset " + (buffer.position() - 4));
+            }
+            return n;
+        }
+    }
+}
@@ -6,10 +6,12 @@ public class CombatDemo {
 
         List<AICreature> roster = new ArrayList<>();
 
-        roster.add(new AICreature(new String[]{"level:3", "speed:fast", "agile", "strong-sense"}));
-        roster.add(new AICreature(new String[]{"level:2", "speed:medium", "resilient", "high endurance"}));
-        roster.add(new AICreature(new String[]{"level:4", "speed:low", "fragile", "quick-learner"}));
-        roster.add(new AICreature(new String[]{"level:1", "speed:fast", "adaptive", "swimming"}));
+        PopulationStore store = new PopulationStore(16);
+
+        roster.add(new AICreature(store, new String[]{"level:3", "speed:fast", "agile", "strong-sense"}));
+        roster.add(new AICreature(store, new String[]{"level:2", "speed:medium", "resilient", "high endurance"}));
+        roster.add(new AICreature(store, new String[]{"level:4", "speed:low", "fragile", "quick-learner"}));
+        roster.add(new AICreature(store, new String[]{"level:1", "speed:fast", "adaptive", "swimming"}));
 
         System.out.println("Initial roster and scores:");
         for (AICreature c : roster) {
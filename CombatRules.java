@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CombatRules: per-trait combat weights, read from a rule file and compiled
+ * into a trait-id -> weight table.
+ *
+ * A rule file has one rule per line, checked in order; the first rule whose
+ * tests all match a (lowercased) trait gives that trait's weight, and traits
+ * no rule matches weigh 0. '#' starts a comment.
+ * <pre>
+ *   weight | test text [| test text ...]
+ *
+ *   6              | prefix speed: | contains fast
+ *   level*10 else 5 | prefix level:
+ * </pre>
+ * Tests are {@code prefix}, {@code contains} and {@code equals}. A weight is
+ * an integer, or {@code level*N [else M]}: N times the number after the
+ * trait's first ':' ("level:3" -> 3N), M (default 0) when that is not a
+ * number. Each trait id is matched against the rules once; after that a
+ * trait's weight is an array lookup. {@link #defaults()} is the original
+ * CombatSystem scoring, also shipped as combat_rules.txt.
+ */
+public final class CombatRules {
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final String DEFAULT_RULES = String.join("\n",
+            "level*10 else 5 | prefix level:",
+            "6  | prefix speed: | contains fast",
+            "3  | prefix speed: | contains medium",
+            "1  | prefix speed:",
+            "4  | contains agile",
+            "3  | contains adaptive",
+            "3  | contains resilient",
+            "2  | contains quick-learner",
+            "2  | contains strong-sense",
+            "2  | contains perception",
+            "-4 | contains fragile",
+            "-3 | contains slow-reaction",
+            "-2 | contains weak-sense",
+            "3  | contains heat resistance",
+            "3  | contains cold resistance",
+            "3  | contains swimming",
+            "3  | contains water conservation",
+            "3  | contains toxic resistance",
+            "3  | contains methane breather",
+            "3  | contains nitrogen tolerance",
+            "3  | contains high endurance");
+
+    private static final CombatRules DEFAULTS = parse(Arrays.asList(DEFAULT_RULES.split("\n")));
+
+    private final Rule[] rules;
+    // weight by trait id, UNKNOWN until the id is first looked up; replaced (never shrunk) on growth
+    private volatile int[] weights = new int[0];
+
+    private CombatRules(Rule[] rules) {
+        this.rules = rules;
+    }
+
+    public static CombatRules defaults() {
+        return DEFAULTS;
+    }
+
+    public static CombatRules load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compile rule lines; throws IllegalArgumentException naming the bad line.
+     */
+    public static CombatRules parse(List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            if (line.isBlank()) continue;
+            try {
+                rules.add(Rule.parse(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Combat rule line " + (n + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new CombatRules(rules.toArray(new Rule[0]));
+    }
+
+    /**
+     * Sum of the weights of the first {@code count} trait ids.
+     */
+    public int score(int[] traitIds, int count) {
+        int score = 0;
+        int[] table = weights;
+        for (int i = 0; i < count; i++) {
+            int id = traitIds[i];
+            int w = id < table.length ? table[id] : UNKNOWN;
+            if (w == UNKNOWN) w = compile(id);
+            score += w;
+        }
+        return score;
+    }
+
+    public int weight(int traitId) {
+        int[] table = weights;
+        int w = traitId < table.length ? table[traitId] : UNKNOWN;
+        return w == UNKNOWN ? compile(traitId) : w;
+    }
+
+    /**
+     * Weight of a trait name, evaluated against the rules directly.
+     */
+    public int weight(String trait) {
+        if (trait == null) return 0;
+        String lower = trait.toLowerCase();
+        for (Rule r : rules) {
+            if (r.matches(lower)) return r.weight(lower);
+        }
+        return 0;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    // racing threads may both compute an id; they store the same value
+    private int compile(int traitId) {
+        int w = weight(TraitDictionary.name(traitId));
+        int[] table = weights;
+        if (traitId >= table.length) {
+            synchronized (this) {
+                table = weights;
+                if (traitId >= table.length) {
+                    int old = table.length;
+                    table = Arrays.copyOf(table, Math.max(traitId + 1, Math.max(64, old * 2)));
+                    Arrays.fill(table, old, table.length, UNKNOWN);
+                    weights = table;
+                }
+            }
+        }
+        table[traitId] = w;
+        return w;
+    }
+
+    private static final class Rule {
+        private static final int PREFIX = 0, CONTAINS = 1, EQUALS = 2;
+
+        final int[] kinds;
+        final String[] texts;
+        final int weight;          // fixed weight, or the per-level factor
+        final boolean perLevel;
+        final int fallback;        // perLevel only: weight when the level is not a number
+
+        private Rule(int[] kinds, String[] texts, int weight, boolean perLevel, int fallback) {
+            this.kinds = kinds; this.texts = texts; this.weight = weight;
+            this.perLevel = perLevel; this.fallback = fallback;
+        }
+
+        static Rule parse(String line) {
+            String[] parts = line.split("\\|");
+            if (parts.length < 2) throw new IllegalArgumentException("expected 'weight | test text', got '" + line.trim() + "'");
+            int[] kinds = new int[parts.length - 1];
+            String[] texts = new String[parts.length - 1];
+            for (int i = 1; i < parts.length; i++) {
+                String test = parts[i].trim();
+                int space = test.indexOf(' ');
+                if (space < 0) throw new IllegalArgumentException("test without text: '" + test + "'");
+                String kind = test.substring(0, space);
+                switch (kind) {
+                    case "prefix": kinds[i - 1] = PREFIX; break;
+                    case "contains": kinds[i - 1] = CONTAINS; break;
+                    case "equals": kinds[i - 1] = EQUALS; break;
+                    default: throw new IllegalArgumentException("unknown test '" + kind + "'");
+                }
+                texts[i - 1] = test.substring(space + 1).trim().toLowerCase();
+            }
+
+            String w = parts[0].trim();
+            try {
+                if (!w.startsWith("level*")) return new Rule(kinds, texts, Integer.parseInt(w), false, 0);
+                String[] level = w.substring("level*".length()).split("\\s+else\\s+");
+                int fallback = level.length > 1 ? Integer.parseInt(level[1].trim()) : 0;
+                return new Rule(kinds, texts, Integer.parseInt(level[0].trim()), true, fallback);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad weight '" + w + "'");
+            }
+        }
+
+        boolean matches(String lower) {
+            for (int i = 0; i < kinds.length; i++) {
+                boolean ok;
+                switch (kinds[i]) {
+                    case PREFIX: ok = lower.startsWith(texts[i]); break;
+                    case CONTAINS: ok = lower.contains(texts[i]); break;
+                    default: ok = lower.equals(texts[i]); break;
+                }
+                if (!ok) return false;
+            }
+            return true;
+        }
+
+        int weight(String lower) {
+            if (!perLevel) return weight;
+            // the number between the first and second ':' ("level:3" -> 3)
+            int colon = lower.indexOf(':');
+            if (colon < 0) return fallback;
+            int end = lower.indexOf(':', colon + 1);
+            try {
+                return Integer.parseInt(lower.substring(colon + 1, end < 0 ? lower.length() : end)) * weight;
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+    }
+}
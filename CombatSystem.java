@@ -1,45 +1,32 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToIntFunction;
+import java.util.random.RandomGenerator;
 
 public class CombatSystem {
 
+    // trait weights used by computeScore; see CombatRules for the rule file format
+    private static volatile CombatRules rules = CombatRules.defaults();
+
+    public static CombatRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Score with {@code rules} from now on (e.g. rules loaded from a file).
+     */
+    public static void setRules(CombatRules rules) {
+        CombatSystem.rules = rules;
+    }
+
+    /**
+     * Combat strength: the trait weights from the combat rules plus a tenth
+     * of the current health. The trait part is cached on the creature, so
+     * this only looks the traits up again after they changed.
+     */
     public static int computeScore(AICreature c) {
-        double score = 0.0;
-
-        // base from attributes
-        String[] attrs = c.getAttributes();
-        if (attrs != null) {
-            for (String a : attrs) {
-                if (a == null) continue;
-                String lower = a.toLowerCase();
-
-                if (lower.startsWith("level:")) {
-                    try {
-                        int lvl = Integer.parseInt(lower.split(":")[1]);
-                        score += lvl * 10; // big impact
-                    } catch (Exception e) {
-                        score += 5;
-                    }
-                } else if (lower.startsWith("speed:")) {
-                    if (lower.contains("fast")) score += 6;
-                    else if (lower.contains("medium")) score += 3;
-                    else score += 1;
-                } else if (lower.contains("agile")) score += 4;
-                else if (lower.contains("adaptive")) score += 3;
-                else if (lower.contains("resilient")) score += 3;
-                else if (lower.contains("quick-learner")) score += 2;
-                else if (lower.contains("strong-sense") || lower.contains("perception")) score += 2;
-                else if (lower.contains("fragile")) score -= 4;
-                else if (lower.contains("slow-reaction")) score -= 3;
-                else if (lower.contains("weak-sense")) score -= 2;
-
-                // environment survival traits
-                else if (lower.contains("heat resistance") || lower.contains("cold resistance") || lower.contains("swimming")
-                        || lower.contains("water conservation") || lower.contains("toxic resistance") || lower.contains("methane breather")
-                        || lower.contains("nitrogen tolerance") || lower.contains("high endurance")) {
-                    score += 3;
-                }
-            }
-        }
+        double score = c.getCombatTraitScore();
 
         // health contributes moderately
         score += c.getHealth() / 10.0;
@@ -47,7 +34,7 @@ public class CombatSystem {
         return (int)Math.round(score);
     }
 
-    public static DuelResult duel(AICreature a, AICreature b, Random rnd) {
+    public static DuelResult duel(AICreature a, AICreature b, RandomGenerator rnd) {
         int sa = computeScore(a);
         int sb = computeScore(b);
 
@@ -78,8 +65,9 @@ public class CombatSystem {
             a.reduceHealth(damage);
             b.reduceHealth(damage);
         } else {
-            int wscore = computeScore(winner);
-            int lscore = computeScore(loser);
+            // nothing has changed since sa / sb were computed
+            int wscore = winner == a ? sa : sb;
+            int lscore = loser == a ? sa : sb;
 
             // base damage grows with score gap and winner capability
             int gap = Math.max(1, Math.abs(wscore - lscore));
@@ -92,12 +80,89 @@ public class CombatSystem {
         return new DuelResult(a, b, sa, sb, draw, winner, loser, damage);
     }
 
+    /**
+     * Run one tournament round: pairs {a0, b0, a1, b1, ...} index into
+     * {@code pool} and no creature appears in two pairs. Pair p draws from its
+     * own stream {@code roundSeeds.match(p)}, and a duel only touches its two
+     * creatures, so running the pairs in parallel on the common fork-join
+     * pool gives exactly the results of running them one after another.
+     * Pairs where either creature is already dead are skipped (null result).
+     */
+    public static DuelResult[] duelRound(List<AICreature> pool, int[] pairs, SeedTree roundSeeds, boolean parallel) {
+        DuelResult[] results = new DuelResult[pairs.length / 2];
+        DuelRange all = new DuelRange(pool, pairs, roundSeeds, results, 0, results.length);
+        if (parallel && results.length > DuelRange.LEAF_PAIRS) {
+            ForkJoinPool.commonPool().invoke(all);
+        } else {
+            all.duelAll();
+        }
+        return results;
+    }
+
+    private static final class DuelRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // below this many pairs a task just runs them
+        static final int LEAF_PAIRS = 64;
+
+        private final List<AICreature> pool;
+        private final int[] pairs;
+        private final SeedTree roundSeeds;
+        private final DuelResult[] results;
+        private final int from, to;
+
+        DuelRange(List<AICreature> pool, int[] pairs, SeedTree roundSeeds, DuelResult[] results, int from, int to) {
+            this.pool = pool; this.pairs = pairs; this.roundSeeds = roundSeeds;
+            this.results = results; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_PAIRS) {
+                duelAll();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new DuelRange(pool, pairs, roundSeeds, results, from, mid),
+                          new DuelRange(pool, pairs, roundSeeds, results, mid, to));
+            }
+        }
+
+        void duelAll() {
+            for (int p = from; p < to; p++) {
+                AICreature a = pool.get(pairs[2 * p]);
+                AICreature b = pool.get(pairs[2 * p + 1]);
+                if (!a.isAlive() || !b.isAlive()) continue;
+                results[p] = duel(a, b, roundSeeds.match(p).stream());
+            }
+        }
+    }
+
     public static List<AICreature> rank(List<AICreature> list) {
         List<AICreature> copy = new ArrayList<>(list);
-        copy.sort(Comparator.comparingInt(CombatSystem::computeScore).reversed());
+        sortByScoreDescending(copy, CombatSystem::computeScore);
         return copy;
     }
 
+    /**
+     * Sort {@code list} by descending {@code score}, evaluating it once per
+     * creature instead of inside the comparator. Equal scores keep their
+     * current order. Returns the scores in the new order.
+     */
+    public static int[] sortByScoreDescending(List<AICreature> list, ToIntFunction<AICreature> score) {
+        int n = list.size();
+        AICreature[] items = list.toArray(new AICreature[0]);
+        // high half: negated score (so ascending order = best first), low half: position
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = ((long) -score.applyAsInt(items[i]) << 32) | i;
+        Arrays.sort(keys);
+        int[] scores = new int[n];
+        for (int r = 0; r < n; r++) {
+            list.set(r, items[(int) keys[r]]);
+            scores[r] = (int) -(keys[r] >> 32);
+        }
+        return scores;
+    }
+
     public static class DuelResult {
         public final AICreature a;
         public final AICreature b;
@@ -21,8 +21,10 @@ public class Creature3DDemo {
 
         // Create diverse creatures
         List<AdvancedAICreature> creatures = new ArrayList<>();
+        PopulationStore store = new PopulationStore(16);
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.SWIMMING,
             "Scales", "Blue", "Streamlined",
             8.0, 0.45,
@@ -30,6 +32,7 @@ public class Creature3DDemo {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.BIPEDAL,
             "Fur", "Orange", "Upright",
             45.0, 1.6,
@@ -37,6 +40,7 @@ public class Creature3DDemo {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.FLYING,
             "Feathers", "Red", "Aerodynamic",
             2.5, 0.35,
@@ -44,6 +48,7 @@ public class Creature3DDemo {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.QUADRUPEDAL,
             "Fur", "Brown", "Robust",
             55.0, 1.3,
@@ -51,6 +56,7 @@ public class Creature3DDemo {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.CRAWLING,
             "Chitin", "Gray", "Elongated",
             12.0, 0.6,
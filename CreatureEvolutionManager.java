@@ -1,18 +1,29 @@
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
 
 public class CreatureEvolutionManager {
 
-    private final Random random;
+    // Creatures are updated in fixed-size partitions; with a SeedTree each
+    // partition draws from its own stream, independent of thread scheduling.
+    public static final int PARTITION_SIZE = 4096;
+
+    private RandomGenerator random;
     private final double mutationChance;
+    private boolean parallel = true;
 
-    public CreatureEvolutionManager(Random random) {
+    public CreatureEvolutionManager(RandomGenerator random) {
         this(random, 0.25);
     }
 
-    public CreatureEvolutionManager(Random random, double mutationChance) {
+    public CreatureEvolutionManager(RandomGenerator random, double mutationChance) {
         this.random = random;
         this.mutationChance = mutationChance;
     }
@@ -21,8 +32,37 @@ public class CreatureEvolutionManager {
     private static final String[] NEGATIVE_TRAITS = {"fragile", "slow-reaction", "forgetful", "weak-sense"};
     private static final String[] SKILL_LEVELS = {"level:1", "level:2", "level:3", "level:4", "level:5"};
 
+    // edits traits in place; logs mutations unless built with a quiet engine
+    private MutationEngine mutationEngine = MutationEngine.LOGGING;
+    private SimulationEventSink events = TextEventSink.STDOUT;
+
+    public void setMutationEngine(MutationEngine mutationEngine) {
+        this.mutationEngine = mutationEngine;
+    }
+
+    /**
+     * Send cycle and mutation reports to {@code events} (replaces the mutation engine).
+     */
+    public void setEventSink(SimulationEventSink events) {
+        this.events = events;
+        this.mutationEngine = new MutationEngine(events);
+    }
+
+    /**
+     * Run the partitions of the seeded {@link #updatePopulation} on the
+     * fork-join pool (default) or one after the other; both give the same
+     * population and the same reports for the same seed.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    private void reportCycle(boolean started) {
+        if (events.isEnabled()) events.accept(new SimulationEvent.EvolutionCycleEvent(started));
+    }
+
     public void updateCreatures(List<AICreature> creatures) {
-        System.out.println("\n--- Starting Creature Evolution Cycle ---");
+        reportCycle(true);
         for (AICreature creature : creatures) {
             creature.incrementAge();
             applyTraining(creature);
@@ -31,7 +71,109 @@ public class CreatureEvolutionManager {
                 applyMutation(creature);
             }
         }
-        System.out.println("--- Evolution Cycle Finished ---\n");
+        reportCycle(false);
+    }
+
+    /**
+     * Store-backed update: ages the whole population with one column sweep,
+     * then applies training and mutation per creature. {@code creatures} must
+     * be exactly the live creatures of {@code store}.
+     */
+    public void updatePopulation(PopulationStore store, List<AICreature> creatures, String planetType, String atmosphere) {
+        reportCycle(true);
+        store.incrementAgeAll();
+        for (AICreature creature : creatures) {
+            applyTraining(creature, random);
+
+            if (random.nextDouble() < mutationChance) {
+                applyMutation(creature, random);
+            }
+        }
+        reportCycle(false);
+    }
+
+    /**
+     * Seeded variant of {@link #updatePopulation(PopulationStore, List, String, String)}:
+     * partition {@code p} (creatures [p*PARTITION_SIZE, (p+1)*PARTITION_SIZE))
+     * draws from {@code generationSeeds.partition(p)}, so the outcome depends
+     * only on the seed and the population order. Partitions touch disjoint
+     * creatures and run in parallel; their mutation reports are buffered and
+     * sent in partition order once all of them are done.
+     */
+    public void updatePopulation(PopulationStore store, List<AICreature> creatures, String planetType, String atmosphere,
+                                 SeedTree generationSeeds) {
+        reportCycle(true);
+        store.incrementAgeAll();
+        int partitions = (creatures.size() + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        if (parallel && partitions > 1) {
+            EventBuffer[] reports = null;
+            if (mutationEngine.getEventSink().isEnabled()) {
+                reports = new EventBuffer[partitions];
+                for (int p = 0; p < partitions; p++) reports[p] = new EventBuffer();
+            }
+            ForkJoinPool.commonPool().invoke(new PartitionRange(creatures, generationSeeds, reports, 0, partitions));
+            if (reports != null) {
+                SimulationEventSink sink = mutationEngine.getEventSink();
+                for (EventBuffer r : reports) {
+                    for (SimulationEvent e : r.events) sink.accept(e);
+                }
+            }
+        } else {
+            for (int p = 0; p < partitions; p++) {
+                updatePartition(creatures, p, generationSeeds.partition(p).stream(), mutationEngine);
+            }
+        }
+        reportCycle(false);
+    }
+
+    // training and mutation for the creatures of partition p
+    private void updatePartition(List<AICreature> creatures, int p, SplittableRandom partitionRandom, MutationEngine engine) {
+        int start = p * PARTITION_SIZE;
+        int end = Math.min(creatures.size(), start + PARTITION_SIZE);
+        for (int i = start; i < end; i++) {
+            AICreature creature = creatures.get(i);
+            engine.train(creature, partitionRandom);
+
+            if (partitionRandom.nextDouble() < mutationChance) {
+                engine.mutatePhysical(creature, partitionRandom);
+            }
+        }
+    }
+
+    private final class PartitionRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<AICreature> creatures;
+        private final SeedTree generationSeeds;
+        private final EventBuffer[] reports;   // null when mutations are not reported
+        private final int from, to;
+
+        PartitionRange(List<AICreature> creatures, SeedTree generationSeeds, EventBuffer[] reports, int from, int to) {
+            this.creatures = creatures; this.generationSeeds = generationSeeds;
+            this.reports = reports; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                MutationEngine engine = reports == null ? mutationEngine : mutationEngine.reportingTo(reports[from]);
+                updatePartition(creatures, from, generationSeeds.partition(from).stream(), engine);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PartitionRange(creatures, generationSeeds, reports, from, mid),
+                          new PartitionRange(creatures, generationSeeds, reports, mid, to));
+            }
+        }
+    }
+
+    // events of one partition, kept until the partitions before it are sent
+    private static final class EventBuffer implements SimulationEventSink {
+        final List<SimulationEvent> events = new ArrayList<>();
+
+        @Override
+        public void accept(SimulationEvent event) {
+            events.add(event);
+        }
     }
 
     /**
@@ -44,11 +186,18 @@ public class CreatureEvolutionManager {
     /**
      * NUEVO: Simula un cambio planetario drástico (ej. sequía global).
      * Fuerza a los nadadores a evolucionar o sufrir.
+     *
+     * Creatures that perish are removed from {@code creatures} in one pass
+     * after the loop (marked and compacted when it is a {@link Population})
+     * and returned, so the caller can fossilize them and free their slots.
      */
-    public void triggerPlanetaryCataclysm(List<AICreature> creatures, String cataclysmType) {
+    public List<AICreature> triggerPlanetaryCataclysm(List<AICreature> creatures, String cataclysmType) {
         System.out.println("\n!!! PLANETARY CATACLYSM DETECTED: " + cataclysmType + " !!!");
-        
-        for (AICreature creature : creatures) {
+        List<AICreature> perished = new ArrayList<>();
+        Population marked = creatures instanceof Population ? (Population) creatures : null;
+
+        for (int i = 0; i < creatures.size(); i++) {
+            AICreature creature = creatures.get(i);
             // Lógica específica para criaturas acuáticas
             if (creature.getLocomotion() == AICreature.Locomotion.SWIMMING) {
                 double survivalRoll = random.nextDouble();
@@ -68,7 +217,8 @@ public class CreatureEvolutionManager {
                     }
                 } else {
                     System.out.println("  > TRAGEDY: " + creature + " could not adapt and perished.");
-                    // En una simulación real, aquí eliminaríamos la criatura de la lista.
+                    perished.add(creature);
+                    if (marked != null) marked.markDead(i);
                 }
             } 
             // Lógica para los que se arrastran -> Caminar
@@ -80,50 +230,52 @@ public class CreatureEvolutionManager {
                  }
             }
         }
+        // remove the perished in bulk rather than one O(n) remove each
+        if (marked != null) {
+            marked.compact();
+        } else if (!perished.isEmpty()) {
+            Set<AICreature> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+            gone.addAll(perished);
+            creatures.removeIf(gone::contains);
+        }
         System.out.println("!!! CATACLYSM ENDED !!!\n");
+        return perished;
     }
 
     private void applyTraining(AICreature creature) {
-        // Lógica de entrenamiento (simplificada para usar la nueva clase)
-        List<String> currentAttributes = new ArrayList<>(Arrays.asList(creature.getAttributes()));
-        
-        // Entrenar añade un rasgo positivo a veces
-        if (random.nextDouble() < 0.3) {
-            String newTrait = POSITIVE_TRAITS[random.nextInt(POSITIVE_TRAITS.length)];
-            if (!currentAttributes.contains(newTrait)) {
-                currentAttributes.add(newTrait);
-            }
-        }
-        creature.setAttributes(currentAttributes.toArray(new String[0]));
+        applyTraining(creature, random);
+    }
+
+    private void applyTraining(AICreature creature, RandomGenerator random) {
+        // Entrenar añade un rasgo positivo a veces (POSITIVE_TRAITS), editado in situ
+        mutationEngine.train(creature, random);
     }
 
     private void applyMutation(AICreature creature) {
+        applyMutation(creature, random);
+    }
+
+    private void applyMutation(AICreature creature, RandomGenerator random) {
         // La mutación ahora puede afectar los atributos de texto antiguos
-        List<String> currentAttributes = new ArrayList<>(Arrays.asList(creature.getAttributes()));
-        
-        if (random.nextBoolean()) {
-            currentAttributes.add(random.nextBoolean() ? "thick-skin" : "sharp-vision");
-            System.out.println("  - Mutation: " + creature + " gained a physical trait.");
-        }
-        
-        creature.setAttributes(currentAttributes.toArray(new String[0]));
+        mutationEngine.mutatePhysical(creature, random);
     }
 
     // --- MAIN PARA PROBAR TODO ---
     public static void main(String[] args) {
         CreatureEvolutionManager manager = new CreatureEvolutionManager(new Random());
         List<AICreature> population = new ArrayList<>();
+        PopulationStore store = new PopulationStore(16);
 
         // 1. Crear población inicial diversa
         // Nota: El constructor maneja automáticamente el género, tamaño y color exótico
         
         // Unos peces
-        AdvancedAICreature swimmer1 = new AdvancedAICreature(AICreature.Locomotion.SWIMMING, "Scales", "Blue", "Torpedo", 10.0, 0.5, new String[]{"gills"});
-        AdvancedAICreature swimmer2 = new AdvancedAICreature(AICreature.Locomotion.SWIMMING, "Scales", "Silver", "Flat", 5.0, 0.3, new String[]{"fins"});
+        AdvancedAICreature swimmer1 = new AdvancedAICreature(store, AICreature.Locomotion.SWIMMING, "Scales", "Blue", "Torpedo", 10.0, 0.5, new String[]{"gills"});
+        AdvancedAICreature swimmer2 = new AdvancedAICreature(store, AICreature.Locomotion.SWIMMING, "Scales", "Silver", "Flat", 5.0, 0.3, new String[]{"fins"});
         
         // Unos terrestres
-        AdvancedAICreature quad = new AdvancedAICreature(AICreature.Locomotion.QUADRUPEDAL, "Fur", "Brown", "Robust", 50.0, 1.2, new String[]{"teeth"});
-        AdvancedAICreature flyer = new AdvancedAICreature(AICreature.Locomotion.FLYING, "Feathers", "Red", "Aerodynamic", 2.0, 0.4, new String[]{"beak"});
+        AdvancedAICreature quad = new AdvancedAICreature(store, AICreature.Locomotion.QUADRUPEDAL, "Fur", "Brown", "Robust", 50.0, 1.2, new String[]{"teeth"});
+        AdvancedAICreature flyer = new AdvancedAICreature(store, AICreature.Locomotion.FLYING, "Feathers", "Red", "Aerodynamic", 2.0, 0.4, new String[]{"beak"});
 
         population.add(swimmer1);
         population.add(swimmer2);
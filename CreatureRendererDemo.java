@@ -16,9 +16,12 @@ public class CreatureRendererDemo {
 
         CreatureRenderer renderer = new CreatureRenderer();
 
+        PopulationStore store = new PopulationStore(16);
+
         // Demo 1: Swimming creature (female) - Blue scales, smaller
         System.out.println("DEMO 1: Aquatic Swimmer (Female)\n");
         AdvancedAICreature swimmer = new AdvancedAICreature(
+            store,
             AICreature.Locomotion.SWIMMING,
             "Scales",
             "Blue",
@@ -35,6 +38,7 @@ public class CreatureRendererDemo {
         // Demo 2: Terrestrial walker (male) - Fur, larger
         System.out.println("\nDEMO 2: Terrestrial Quadruped (Male)\n");
         AdvancedAICreature quad = new AdvancedAICreature(
+            store,
             AICreature.Locomotion.QUADRUPEDAL,
             "Fur",
             "Brown",
@@ -51,6 +55,7 @@ public class CreatureRendererDemo {
         // Demo 3: Flying creature (female) - Feathers, exotic coloration
         System.out.println("\nDEMO 3: Aerial Flyer (Female)\n");
         AdvancedAICreature flyer = new AdvancedAICreature(
+            store,
             AICreature.Locomotion.FLYING,
             "Feathers",
             "Red",
@@ -67,6 +72,7 @@ public class CreatureRendererDemo {
         // Demo 4: Crawler (male) - Generic skin, reduced height
         System.out.println("\nDEMO 4: Ground Crawler (Male)\n");
         AdvancedAICreature crawler = new AdvancedAICreature(
+            store,
             AICreature.Locomotion.CRAWLING,
             "Chitin",
             "Gray",
@@ -83,6 +89,7 @@ public class CreatureRendererDemo {
         // Demo 5: Bipedal walker (female) - Mixed traits
         System.out.println("\nDEMO 5: Bipedal Humanoid (Female)\n");
         AdvancedAICreature biped = new AdvancedAICreature(
+            store,
             AICreature.Locomotion.BIPEDAL,
             "Fur",
             "Orange",
@@ -140,9 +140,11 @@ public class CreatureVisualizer3D extends Application {
     private void createDemoCreatures(Group root) {
         Random rand = new Random();
         List<AdvancedAICreature> creatures = new ArrayList<>();
+        PopulationStore store = new PopulationStore(16);
 
         // Create diverse creatures
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.SWIMMING,
             "Scales", "Blue", "Streamlined",
             8.0, 0.45,
@@ -150,6 +152,7 @@ public class CreatureVisualizer3D extends Application {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.BIPEDAL,
             "Fur", "Orange", "Upright",
             45.0, 1.6,
@@ -157,6 +160,7 @@ public class CreatureVisualizer3D extends Application {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.FLYING,
             "Feathers", "Red", "Aerodynamic",
             2.5, 0.35,
@@ -164,6 +168,7 @@ public class CreatureVisualizer3D extends Application {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.QUADRUPEDAL,
             "Fur", "Brown", "Robust",
             55.0, 1.3,
@@ -171,6 +176,7 @@ public class CreatureVisualizer3D extends Application {
         ));
 
         creatures.add(new AdvancedAICreature(
+            store,
             AICreature.Locomotion.CRAWLING,
             "Chitin", "Gray", "Elongated",
             12.0, 0.6,
@@ -0,0 +1,282 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DuelLog: every duel as a fixed 32-byte binary record, appended to
+ * memory-mapped segment files (duels-000000.bin, duels-000001.bin, ...) in
+ * one directory.
+ *
+ * A record is eight little-endian ints:
+ * <pre>
+ *   generation | round | lineage A | lineage B | score A | score B | damage | flags
+ * </pre>
+ * with {@link #DRAW}, {@link #A_WON}, {@link #A_DIED} and {@link #B_DIED} in
+ * the flags. Every written record carries {@link #WRITTEN}, so the zeroed
+ * tail of a segment that was never filled (or of a run that died before
+ * {@link #close()}) ends the log. Segments are mapped at full size and a new
+ * one is started when the current one is full; reopening a directory
+ * appends after the last record. Read it back with {@link #read(Path)}.
+ * One writer at a time.
+ */
+public final class DuelLog implements Closeable {
+    public static final int RECORD_BYTES = 32;
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 18;   // 8 MB segments
+
+    public static final int WRITTEN = 1 << 31;
+    public static final int DRAW = 1;
+    public static final int A_WON = 2;
+    public static final int A_DIED = 4;
+    public static final int B_DIED = 8;
+
+    private static final String PREFIX = "duels-";
+    private static final String SUFFIX = ".bin";
+    private static final int FLAGS_OFFSET = 28;
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private int segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long records;   // appended by this writer
+
+    private DuelLog(Path directory, int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    public static DuelLog open(Path directory) throws IOException {
+        return open(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Log into {@code directory} (created if missing), continuing after the
+     * last record already there.
+     */
+    public static DuelLog open(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment < 1) throw new IllegalArgumentException("Segments need room for at least one record: " + recordsPerSegment);
+        Files.createDirectories(directory);
+        DuelLog log = new DuelLog(directory, recordsPerSegment);
+        List<Path> segments = segments(directory);
+        log.map(segments.isEmpty() ? 0 : segmentIndex(segments.get(segments.size() - 1)));
+        // skip the records a previous run left in the last segment
+        MappedByteBuffer b = log.buffer;
+        while (b.remaining() >= RECORD_BYTES && (b.getInt(b.position() + FLAGS_OFFSET) & WRITTEN) != 0) {
+            b.position(b.position() + RECORD_BYTES);
+        }
+        return log;
+    }
+
+    /**
+     * Append one duel of tournament round {@code round}. Call after the
+     * duel, so the death flags reflect it.
+     */
+    public void append(int generation, int round, CombatSystem.DuelResult res) {
+        int flags = res.draw ? DRAW : (res.winner == res.a ? A_WON : 0);
+        if (!res.a.isAlive()) flags |= A_DIED;
+        if (!res.b.isAlive()) flags |= B_DIED;
+        append(generation, round, res.a.getLineageId(), res.b.getLineageId(), res.scoreA, res.scoreB,
+                res.damageDealtToLoser, flags);
+    }
+
+    public void append(int generation, int round, int lineageA, int lineageB, int scoreA, int scoreB, int damage, int flags) {
+        if (buffer == null) throw new IllegalStateException("Duel log is closed");
+        if (!buffer.hasRemaining()) {
+            try {
+                map(segment + 1);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not start duel log segment " + (segment + 1) + " in " + directory, e);
+            }
+        }
+        MappedByteBuffer b = buffer;
+        b.putInt(generation).putInt(round).putInt(lineageA).putInt(lineageB)
+                .putInt(scoreA).putInt(scoreB).putInt(damage).putInt(flags | WRITTEN);
+        records++;
+    }
+
+    /** Records appended since this log was opened. */
+    public long size() {
+        return records;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** Write the mapped records through to the files. */
+    public void force() {
+        if (buffer != null) buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) return;
+        buffer.force();
+        buffer = null;
+        channel.close();
+        channel = null;
+    }
+
+    private void map(int index) throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            channel.close();
+        }
+        segment = index;
+        channel = FileChannel.open(segmentPath(directory, index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, index, SUFFIX));
+    }
+
+    private static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // segment files in log order
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> out = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return out;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "[0-9][0-9][0-9][0-9][0-9][0-9]" + SUFFIX)) {
+            for (Path p : files) out.add(p);
+        }
+        out.sort((p, q) -> Integer.compare(segmentIndex(p), segmentIndex(q)));
+        return out;
+    }
+
+    /**
+     * Summary of a log directory: java DuelLog DIR
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: java DuelLog DIR");
+            return;
+        }
+        long duels = 0, draws = 0, deaths = 0;
+        int firstGen = Integer.MAX_VALUE, lastGen = Integer.MIN_VALUE;
+        long start = System.nanoTime();
+        try (Cursor c = read(Path.of(args[0]))) {
+            while (c.next()) {
+                duels++;
+                int f = c.flags();
+                if ((f & DRAW) != 0) draws++;
+                deaths += Integer.bitCount(f & (A_DIED | B_DIED));
+                firstGen = Math.min(firstGen, c.generation());
+                lastGen = Math.max(lastGen, c.generation());
+            }
+        }
+        long micros = Math.max(1, (System.nanoTime() - start) / 1000);
+        if (duels == 0) {
+            System.out.println("No duels in " + args[0]);
+            return;
+        }
+        System.out.println(duels + " duels in generations " + firstGen + "-" + lastGen + ": " + draws + " draws, " + deaths + " deaths");
+        System.out.println("scanned in " + micros / 1000 + " ms (" + duels * 1_000_000 / micros + " records/s)");
+    }
+
+    /**
+     * Cursor over every record in {@code directory}, oldest first.
+     */
+    public static Cursor read(Path directory) throws IOException {
+        return new Cursor(segments(directory));
+    }
+
+    /**
+     * Reads the records in place from read-only mappings of the segments:
+     * {@link #next()} moves to the following record and the getters read the
+     * current one, so scanning allocates nothing per record.
+     */
+    public static final class Cursor implements Closeable {
+        private final List<Path> segments;
+        private int nextSegment;
+        private MappedByteBuffer buffer;
+        private int at = -RECORD_BYTES;
+
+        private Cursor(List<Path> segments) {
+            this.segments = segments;
+        }
+
+        public boolean next() throws IOException {
+            while (true) {
+                if (buffer != null) {
+                    int following = at + RECORD_BYTES;
+                    if (following + RECORD_BYTES <= buffer.limit() && (buffer.getInt(following + FLAGS_OFFSET) & WRITTEN) != 0) {
+                        at = following;
+                        return true;
+                    }
+                }
+                if (nextSegment == segments.size()) {
+                    buffer = null;
+                    return false;
+                }
+                try (FileChannel ch = FileChannel.open(segments.get(nextSegment++), StandardOpenOption.READ)) {
+                    buffer = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                }
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                at = -RECORD_BYTES;
+            }
+        }
+
+        public int generation() {
+            return buffer.getInt(at);
+        }
+
+        public int round() {
+            return buffer.getInt(at + 4);
+        }
+
+        public int lineageA() {
+            return buffer.getInt(at + 8);
+        }
+
+        public int lineageB() {
+            return buffer.getInt(at + 12);
+        }
+
+        public int scoreA() {
+            return buffer.getInt(at + 16);
+        }
+
+        public int scoreB() {
+            return buffer.getInt(at + 20);
+        }
+
+        public int damage() {
+            return buffer.getInt(at + 24);
+        }
+
+        /** Flags of the current record, without {@link #WRITTEN}. */
+        public int flags() {
+            return buffer.getInt(at + FLAGS_OFFSET) & ~WRITTEN;
+        }
+
+        public boolean isDraw() {
+            return (flags() & DRAW) != 0;
+        }
+
+        /** Lineage of the winner, or -1 for a draw. */
+        public int winnerLineage() {
+            int f = flags();
+            return (f & DRAW) != 0 ? -1 : (f & A_WON) != 0 ? lineageA() : lineageB();
+        }
+
+        @Override
+        public void close() {
+            buffer = null;
+            nextSegment = segments.size();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EnvironmentProfile: immutable, pre-compiled view of a planet environment
+ * (planet type + atmosphere).
+ *
+ * Everything creatures need from the environment each tick (vital traits,
+ * pressure per missing trait, the planet's baseline and required traits) is
+ * resolved to trait ids once, when the environment changes, so per-creature
+ * ticks never parse or compare environment strings. Profiles are cached per
+ * (type, atmosphere) pair.
+ */
+public final class EnvironmentProfile {
+    // Map planet types to a richer set of required/typical traits
+    private static final Map<String, String[]> PLANET_TRAITS = new HashMap<>();
+    static {
+        PLANET_TRAITS.put("Lava", new String[]{"Heat Resistance", "Fire Breath", "Magma Camouflage", "Thermal Vision"});
+        PLANET_TRAITS.put("Ice", new String[]{"Cold Resistance", "Ice Camouflage", "Antifreeze Blood", "Blubber"});
+        PLANET_TRAITS.put("Desert", new String[]{"Water Conservation", "Sand Burrower", "Heat Tolerance", "Night Vision"});
+        PLANET_TRAITS.put("Ocean", new String[]{"Swimming", "Gills", "Salt Tolerance", "Pressure Resistance"});
+        PLANET_TRAITS.put("Forest", new String[]{"Climbing", "Leaf Camouflage", "Camouflage Scent", "Nocturnal"});
+        // New world types with larger requirement sets
+        PLANET_TRAITS.put("Swamp", new String[]{"Mire Grip", "Toxin Metabolism", "Buoyant", "Camouflage Algae", "Amphibious Respiration"});
+        PLANET_TRAITS.put("Mountain", new String[]{"Cliff Climbing", "Thick Fur", "High Altitude Lung", "Rock Camouflage", "Low Oxygen Tolerance"});
+    }
+
+    private static final ConcurrentHashMap<String, EnvironmentProfile> CACHE = new ConcurrentHashMap<>();
+
+    private final String planetType;
+    private final String atmosphere;
+    private final String[] baselineTraits;
+    private final TraitSet requiredTraits;
+    private final int[] vitalTraits;        // ids, in the order they are offered for re-evolution
+    private final int[] pressureTraits;     // ids whose absence adds pressure
+    private final double[] pressureValues;  // parallel to pressureTraits
+
+    private EnvironmentProfile(String planetType, String atmosphere) {
+        this.planetType = planetType;
+        this.atmosphere = atmosphere;
+
+        // baseline attributes: planet traits followed by one atmosphere trait
+        List<String> baseline = new ArrayList<>();
+        String[] base = planetType == null ? null : PLANET_TRAITS.get(planetType);
+        if (base != null) {
+            for (String b : base) baseline.add(b);
+        }
+        if (atmosphere != null) {
+            if (atmosphere.contains("Oxygen")) {
+                baseline.add("High Endurance");
+            } else if (atmosphere.contains("Nitrogen")) {
+                baseline.add("Nitrogen Tolerance");
+            } else if (atmosphere.contains("Methane")) {
+                baseline.add("Methane Breather");
+            } else if (atmosphere.contains("Carbon monoxide")) {
+                baseline.add("Toxic Resistance");
+            }
+        }
+        this.baselineTraits = baseline.toArray(new String[0]);
+
+        // required planet traits are the first two baseline entries
+        this.requiredTraits = new TraitSet();
+        if (baselineTraits.length >= 2) {
+            requiredTraits.add(TraitDictionary.intern(baselineTraits[0]));
+            requiredTraits.add(TraitDictionary.intern(baselineTraits[1]));
+        }
+
+        // environmental pressure: only the first matching atmosphere rule applies
+        List<Integer> pIds = new ArrayList<>();
+        List<Double> pVals = new ArrayList<>();
+        if (atmosphere != null) {
+            if (atmosphere.contains("Carbon")) {
+                pIds.add(TraitDictionary.intern("Toxic Resistance")); pVals.add(0.4);
+            } else if (atmosphere.contains("Methane")) {
+                pIds.add(TraitDictionary.intern("Methane Breather")); pVals.add(0.4);
+            } else if (atmosphere.contains("Nitrogen")) {
+                pIds.add(TraitDictionary.intern("Nitrogen Tolerance")); pVals.add(0.2);
+            } else if (atmosphere.contains("Oxygen")) {
+                pIds.add(TraitDictionary.intern("High Endurance")); pVals.add(0.1);
+            }
+        }
+        String planetVital = planetVitalTrait(planetType);
+        if (planetVital != null) {
+            pIds.add(TraitDictionary.intern(planetVital)); pVals.add(0.3);
+        }
+        this.pressureTraits = new int[pIds.size()];
+        this.pressureValues = new double[pVals.size()];
+        for (int i = 0; i < pressureTraits.length; i++) {
+            pressureTraits[i] = pIds.get(i);
+            pressureValues[i] = pVals.get(i);
+        }
+
+        // vital traits: every matching atmosphere keyword, then the planet's vital trait
+        List<Integer> vital = new ArrayList<>();
+        if (atmosphere != null) {
+            if (atmosphere.contains("Carbon")) vital.add(TraitDictionary.intern("Toxic Resistance"));
+            if (atmosphere.contains("Methane")) vital.add(TraitDictionary.intern("Methane Breather"));
+            if (atmosphere.contains("Nitrogen")) vital.add(TraitDictionary.intern("Nitrogen Tolerance"));
+            if (atmosphere.contains("Oxygen")) vital.add(TraitDictionary.intern("High Endurance"));
+        }
+        if (planetVital != null) vital.add(TraitDictionary.intern(planetVital));
+        this.vitalTraits = new int[vital.size()];
+        for (int i = 0; i < vitalTraits.length; i++) vitalTraits[i] = vital.get(i);
+    }
+
+    private static String planetVitalTrait(String planetType) {
+        if (planetType == null) return null;
+        switch (planetType) {
+            case "Ocean": return "Swimming";
+            case "Lava": return "Heat Resistance";
+            case "Ice": return "Cold Resistance";
+            case "Desert": return "Water Conservation";
+            default: return null;
+        }
+    }
+
+    /**
+     * Compiled profile for an environment; compiled on first use, then cached.
+     */
+    public static EnvironmentProfile of(String planetType, String atmosphere) {
+        String key = planetType + "\u0000" + atmosphere;
+        EnvironmentProfile p = CACHE.get(key);
+        if (p == null) {
+            p = CACHE.computeIfAbsent(key, k -> new EnvironmentProfile(planetType, atmosphere));
+        }
+        return p;
+    }
+
+    public String getPlanetType() {
+        return planetType;
+    }
+
+    public String getAtmosphere() {
+        return atmosphere;
+    }
+
+    /**
+     * Fresh copy of the baseline attributes a creature spawned here starts with.
+     */
+    public String[] newBaselineAttributes() {
+        return baselineTraits.clone();
+    }
+
+    /**
+     * Traits a creature needs to survive crises here. Read-only.
+     */
+    public TraitSet requiredTraits() {
+        return requiredTraits;
+    }
+
+    /**
+     * Environmental pressure added to the mutation chance for the given traits.
+     */
+    public double pressure(TraitSet traits) {
+        double p = 0.0;
+        for (int i = 0; i < pressureTraits.length; i++) {
+            if (!traits.contains(pressureTraits[i])) p += pressureValues[i];
+        }
+        return p;
+    }
+
+    /**
+     * Write the ids of vital traits missing from {@code traits} into
+     * {@code out} (which must hold {@link #vitalTraitCount()} entries) and
+     * return how many were written.
+     */
+    public int missingVital(TraitSet traits, int[] out) {
+        int n = 0;
+        for (int id : vitalTraits) {
+            if (!traits.contains(id)) out[n++] = id;
+        }
+        return n;
+    }
+
+    public int vitalTraitCount() {
+        return vitalTraits.length;
+    }
+
+    @Override
+    public String toString() {
+        return "EnvironmentProfile{" + planetType + ", " + atmosphere + ", required=" + requiredTraits + '}';
+    }
+}
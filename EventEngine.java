@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class EventEngine {
     /**
@@ -6,7 +6,17 @@ public class EventEngine {
      * based on the current environment. Uses a deterministic mapping with some
      * randomness to create dramatic changes.
      */
-    public static String[] triggerCrisis(Random random, String currentType, String currentAtmosphere) {
+    public static String[] triggerCrisis(RandomGenerator random, String currentType, String currentAtmosphere) {
+        String[] env = chooseCrisis(random, currentType, currentAtmosphere);
+        System.out.println(new SimulationEvent.CrisisEvent(env[0], env[1]).describe());
+        return env;
+    }
+
+    /**
+     * Same draw as {@link #triggerCrisis}, without printing; callers report a
+     * {@link SimulationEvent.CrisisEvent} to their own sink.
+     */
+    public static String[] chooseCrisis(RandomGenerator random, String currentType, String currentAtmosphere) {
         // pick a random event that changes the environment significantly
         String newType = currentType;
         String newAtmosphere = currentAtmosphere;
@@ -35,7 +45,6 @@ public class EventEngine {
                 break;
         }
 
-        System.out.println("!! PLANET CRISIS: environment shifting to " + newType + " (" + newAtmosphere + ") !!");
         return new String[]{newType, newAtmosphere};
     }
 }
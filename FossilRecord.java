@@ -13,38 +13,131 @@ import java.util.List;
 /**
  * FossilRecord: saves human-readable fossils and a CSV 'hall of fame' for quick
  * tabular display. The CSV is appended to as new extinctions occur.
+ *
+ * Each record owns one pair of files (fossils.txt / fossils.csv in its
+ * directory), so worlds simulated side by side each write their own; writes
+ * to one record are serialized. An asynchronous record ({@link #setAsync})
+ * captures each fossil when it is saved and appends them in batches on a
+ * writer thread; reads flush it first. The static methods use the default
+ * record in the working directory, as the single-planet simulation always has.
  */
 
 public class FossilRecord {
     private static final String FOSSIL_FILE = "fossils.txt";
     private static final String FOSSIL_CSV = "fossils.csv";
 
+    private static final FossilRecord DEFAULT = new FossilRecord(new File("."));
+
+    private final File fossilFile;
+    private final File csvFile;
+    private int nextId = -1;   // next CSV id, counted from the file on first save
+    // writes fossils in the background when set (see setAsync)
+    private volatile PipelineStage<Fossil> writer;
+
+    private static final int WRITER_CAPACITY = 4096;
+    private static final int WRITER_BATCH = 256;
+
+    /**
+     * Record writing fossils.txt and fossils.csv into {@code directory}
+     * (created on first save if missing).
+     */
+    public FossilRecord(File directory) {
+        this.fossilFile = new File(directory, FOSSIL_FILE);
+        this.csvFile = new File(directory, FOSSIL_CSV);
+    }
+
+    public static FossilRecord defaultRecord() {
+        return DEFAULT;
+    }
+
     public static void saveFossil(AICreature creature, String planetName, String planetType, String atmosphere, String cause) {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        DEFAULT.save(creature, planetName, planetType, atmosphere, cause);
+    }
+
+    public static void printHallOfFame() {
+        DEFAULT.printHall();
+    }
+
+    public static void printLineageHistories() {
+        DEFAULT.printLineages();
+    }
+
+    public File getCsvFile() {
+        return csvFile;
+    }
+
+    /** Directory this record writes into. */
+    public File getDirectory() {
+        return csvFile.getAbsoluteFile().getParentFile();
+    }
+
+    /**
+     * Fossilize {@code creature}. Its state is captured right away; the files
+     * are written here, or later by the writer stage when the record is
+     * {@link #setAsync asynchronous}.
+     */
+    public void save(AICreature creature, String planetName, String planetType, String atmosphere, String cause) {
+        Fossil fossil = new Fossil(creature, planetName, planetType, atmosphere, cause);
+        PipelineStage<Fossil> stage = writer;
+        if (stage != null) stage.submit(fossil);
+        else write(Collections.singletonList(fossil));
+    }
+
+    /**
+     * Write fossils on a background {@link PipelineStage} (true), so a
+     * generation with many extinctions does not wait for the disk, or inside
+     * {@link #save} (false, the default). Switching back to synchronous
+     * writes flushes and stops the stage. Do not switch while a simulation
+     * is saving into this record.
+     */
+    public void setAsync(boolean async) {
+        PipelineStage<Fossil> stopped = null;
+        // the writer thread locks this record in write(), so close the stage outside the lock
+        synchronized (this) {
+            if (async && writer == null) {
+                writer = new PipelineStage<>("fossil-writer", WRITER_CAPACITY, WRITER_BATCH, this::write);
+            } else if (!async && writer != null) {
+                stopped = writer;
+                writer = null;
+            }
+        }
+        if (stopped != null) stopped.close();
+    }
+
+    public boolean isAsync() {
+        return writer != null;
+    }
+
+    /** Wait until every fossil saved so far is on disk. */
+    public void flush() {
+        PipelineStage<Fossil> stage = writer;
+        if (stage != null) stage.flush();
+    }
+
+    // append a batch of fossils: one open of each file per batch
+    private synchronized void write(List<Fossil> batch) {
+        File dir = fossilFile.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
 
         // Human-readable fossil log (append)
         StringBuilder sb = new StringBuilder();
-        sb.append("--- FOSSIL RECORD ---\n");
-        sb.append("timestamp: ").append(timestamp).append("\n");
-        sb.append("planetName: ").append(planetName).append("\n");
-        sb.append("planetType: ").append(planetType).append("\n");
-        sb.append("atmosphere: ").append(atmosphere).append("\n");
-        sb.append("age: ").append(creature.getAge()).append("\n");
-        sb.append("health: ").append(creature.getHealth()).append("\n");
-        sb.append("cause: ").append(cause).append("\n");
-        sb.append("attributes: ");
-        StringBuilder traitsJoin = new StringBuilder();
-        for (int i = 0; i < creature.getAttributes().length; i++) {
-            String a = creature.getAttributes()[i];
-            sb.append(a).append(",");
-            if (i > 0) traitsJoin.append(";");
-            traitsJoin.append(a);
+        for (Fossil f : batch) {
+            sb.append("--- FOSSIL RECORD ---\n");
+            sb.append("timestamp: ").append(f.timestamp).append("\n");
+            sb.append("planetName: ").append(f.planetName).append("\n");
+            sb.append("planetType: ").append(f.planetType).append("\n");
+            sb.append("atmosphere: ").append(f.atmosphere).append("\n");
+            sb.append("age: ").append(f.age).append("\n");
+            sb.append("health: ").append(f.health).append("\n");
+            sb.append("cause: ").append(f.cause).append("\n");
+            sb.append("attributes: ");
+            for (String a : f.attributes) sb.append(a).append(",");
+            sb.append("\n");
+            sb.append("totalDamageTaken: ").append(f.damageTaken).append("\n");
+            sb.append("mutationCount: ").append(f.mutationCount).append("\n\n");
         }
-        sb.append("\n");
-        sb.append("totalDamageTaken: ").append(creature.getTotalDamageTaken()).append("\n");
-        sb.append("mutationCount: ").append(creature.getMutationCount()).append("\n\n");
 
-        try (FileWriter fw = new FileWriter(FOSSIL_FILE, true)) {
+        try (FileWriter fw = new FileWriter(fossilFile, true)) {
             fw.write(sb.toString());
         } catch (IOException e) {
             System.err.println("Failed to write fossil record: " + e.getMessage());
@@ -52,65 +145,107 @@ public class FossilRecord {
 
         // CSV Hall-of-Fame append (id auto-increment)
         try {
-            File csv = new File(FOSSIL_CSV);
+            File csv = csvFile;
             boolean writeHeader = !csv.exists();
-            int nextId = 1;
-            if (csv.exists()) {
-                // count existing non-empty lines (subtract header)
-                try (BufferedReader br = new BufferedReader(new FileReader(csv))) {
-                    int lines = 0;
-                    while (br.readLine() != null) lines++;
-                    nextId = Math.max(1, lines); // header occupies first line
+            if (nextId < 0) {
+                nextId = 1;
+                if (csv.exists()) {
+                    // count existing non-empty lines (subtract header)
+                    try (BufferedReader br = new BufferedReader(new FileReader(csv))) {
+                        int lines = 0;
+                        while (br.readLine() != null) lines++;
+                        nextId = Math.max(1, lines); // header occupies first line
+                    }
                 }
             }
 
-            try (FileWriter fw = new FileWriter(csv, true)) {
-                if (writeHeader) {
-                    // geneticCode included for lineage tracking
-                    fw.write("id,timestamp,planetName,planetType,atmosphere,finalAge,cause,geneticCode,survivalTraits,damageTaken,mutationCount\n");
-                }
+            StringBuilder rows = new StringBuilder();
+            if (writeHeader) {
+                // geneticCode included for lineage tracking
+                rows.append("id,timestamp,planetName,planetType,atmosphere,finalAge,cause,geneticCode,survivalTraits,damageTaken,mutationCount\n");
+            }
+            for (Fossil f : batch) {
                 // traits are separated by semicolon to avoid CSV comma conflicts
-                String traitsEscaped = traitsJoin.toString().replace("\n", " ").replace("\r", " ");
-                String genetic = creature.getGeneticCode();
-                fw.write(String.format("%d,%s,%s,%s,%s,%d,%s,%s,%s,%d,%d\n",
-                        nextId,
-                        timestamp,
-                        sanitizeCsv(planetName),
-                        sanitizeCsv(planetType),
-                        sanitizeCsv(atmosphere),
-                        creature.getAge(),
-                        sanitizeCsv(cause),
-                        sanitizeCsv(genetic),
+                String traitsEscaped = String.join(";", f.attributes).replace("\n", " ").replace("\r", " ");
+                rows.append(String.format("%d,%s,%s,%s,%s,%d,%s,%s,%s,%d,%d\n",
+                        nextId++,
+                        f.timestamp,
+                        sanitizeCsv(f.planetName),
+                        sanitizeCsv(f.planetType),
+                        sanitizeCsv(f.atmosphere),
+                        f.age,
+                        sanitizeCsv(f.cause),
+                        sanitizeCsv(f.geneticCode),
                         sanitizeCsv(traitsEscaped),
-                        creature.getTotalDamageTaken(),
-                        creature.getMutationCount()));
+                        f.damageTaken,
+                        f.mutationCount));
+            }
+            try (FileWriter fw = new FileWriter(csv, true)) {
+                fw.write(rows.toString());
             }
         } catch (IOException e) {
             System.err.println("Failed to append fossil CSV: " + e.getMessage());
         }
     }
 
+    // what a fossil records, captured when the creature dies
+    private static final class Fossil {
+        final String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        final String planetName, planetType, atmosphere, cause;
+        final int age, health, damageTaken, mutationCount;
+        final String[] attributes;
+        final String geneticCode;
+
+        Fossil(AICreature c, String planetName, String planetType, String atmosphere, String cause) {
+            this.planetName = planetName;
+            this.planetType = planetType;
+            this.atmosphere = atmosphere;
+            this.cause = cause;
+            this.age = c.getAge();
+            this.health = c.getHealth();
+            this.damageTaken = c.getTotalDamageTaken();
+            this.mutationCount = c.getMutationCount();
+            this.attributes = c.getAttributes().clone();
+            this.geneticCode = c.getGeneticCode();
+        }
+    }
+
     private static String sanitizeCsv(String s) {
         if (s == null) return "";
         return s.replace(",", "|").replace("\n", " ").replace("\r", " ");
     }
 
-    public static void printHallOfFame() {
-        File csv = new File(FOSSIL_CSV);
-        if (!csv.exists()) {
+    /**
+     * CSV rows (11 columns, header skipped) of this record; empty if there is no CSV yet.
+     */
+    public List<String[]> readRows() throws IOException {
+        flush();
+        synchronized (this) {
+            List<String[]> rows = new ArrayList<>();
+            if (!csvFile.exists()) return rows;
+            try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+                String header = br.readLine(); // skip header
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.trim().isEmpty()) continue;
+                    String[] cols = line.split(",", 11);
+                    if (cols.length >= 11) rows.add(cols);
+                }
+            }
+            return rows;
+        }
+    }
+
+    public void printHall() {
+        flush();
+        if (!csvFile.exists()) {
             System.out.println("Hall of Fame is empty (no fossils yet).");
             return;
         }
 
-        List<String[]> rows = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(csv))) {
-            String header = br.readLine(); // skip header
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] cols = line.split(",", 11);
-                if (cols.length >= 11) rows.add(cols);
-            }
+        List<String[]> rows;
+        try {
+            rows = readRows();
         } catch (IOException e) {
             System.err.println("Failed to read Hall of Fame: " + e.getMessage());
             return;
@@ -145,8 +280,15 @@ public class FossilRecord {
         System.out.println("=== End Hall of Fame ===\n");
     }
 
-    public static void printLineageHistories() {
-        File csv = new File(FOSSIL_CSV);
+    public void printLineages() {
+        flush();
+        synchronized (this) {
+            printLineageEntries();
+        }
+    }
+
+    private void printLineageEntries() {
+        File csv = csvFile;
         if (!csv.exists()) {
             System.out.println("No fossil CSV available for lineage histories.");
             return;
@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * Genome: reversible packed binary encoding of a creature, plus the cached
+ * per-trait tokens used by {@link AICreature#getGeneticCode()}.
+ *
+ * Layout (every field fixed width):
+ * <pre>
+ *   word 0: lineageId (hi 32)      | age (lo 32)
+ *   word 1: mutationCount (hi 32)  | totalDamageTaken (lo 32)
+ *   word 2: health (hi 16) | adaptiveCharges (16) | traitCount (lo 32)
+ *   word 3..: trait ids from TraitDictionary, two 32-bit ids per word, in order
+ * </pre>
+ * Arrays.hashCode / Arrays.equals over the words give cheap genome hashing
+ * and equality; {@link #attributes(long[])} and the field accessors decode it.
+ */
+public final class Genome {
+    public static final int HEADER_WORDS = 3;
+
+    private static volatile String[] tokens = new String[0];
+
+    private Genome() {
+    }
+
+    public static long[] encode(AICreature c) {
+        int traitCount = c.getTraitCount();
+        long[] g = new long[HEADER_WORDS + (traitCount + 1) / 2];
+        g[0] = pack(c.getLineageId(), c.getAge());
+        g[1] = pack(c.getMutationCount(), c.getTotalDamageTaken());
+        g[2] = ((long) (c.getHealth() & 0xFFFF) << 48) | ((long) (c.getAdaptiveCharges() & 0xFFFF) << 32) | (traitCount & 0xFFFFFFFFL);
+        for (int i = 0; i < traitCount; i++) {
+            int w = HEADER_WORDS + (i >>> 1);
+            long id = c.getTraitId(i) & 0xFFFFFFFFL;
+            g[w] |= (i & 1) == 0 ? id << 32 : id;
+        }
+        return g;
+    }
+
+    private static long pack(int hi, int lo) {
+        return ((long) hi << 32) | (lo & 0xFFFFFFFFL);
+    }
+
+    public static int lineageId(long[] g) { return (int) (g[0] >>> 32); }
+    public static int age(long[] g) { return (int) g[0]; }
+    public static int mutationCount(long[] g) { return (int) (g[1] >>> 32); }
+    public static int totalDamageTaken(long[] g) { return (int) g[1]; }
+    public static int health(long[] g) { return (int) (g[2] >>> 48); }
+    public static int adaptiveCharges(long[] g) { return (int) ((g[2] >>> 32) & 0xFFFF); }
+    public static int traitCount(long[] g) { return (int) g[2]; }
+
+    public static int traitId(long[] g, int index) {
+        long word = g[HEADER_WORDS + (index >>> 1)];
+        return (int) ((index & 1) == 0 ? word >>> 32 : word);
+    }
+
+    /**
+     * Decode the ordered trait list.
+     */
+    public static String[] attributes(long[] g) {
+        String[] out = new String[traitCount(g)];
+        for (int i = 0; i < out.length; i++) out[i] = TraitDictionary.name(traitId(g, i));
+        return out;
+    }
+
+    public static int hash(long[] g) {
+        return Arrays.hashCode(g);
+    }
+
+    public static boolean same(long[] a, long[] b) {
+        return Arrays.equals(a, b);
+    }
+
+    /**
+     * Genetic-code token for a trait: letters only, upper-cased, at most six
+     * characters ("Heat Resistance" -> "HEATRE"). Computed once per trait id.
+     */
+    public static String token(int traitId) {
+        String[] cache = tokens;
+        if (traitId < cache.length && cache[traitId] != null) return cache[traitId];
+        String name = TraitDictionary.name(traitId);
+        StringBuilder sb = new StringBuilder(6);
+        for (int i = 0; i < name.length() && sb.length() < 6; i++) {
+            char ch = name.charAt(i);
+            if ((ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')) sb.append(Character.toUpperCase(ch));
+        }
+        String token = sb.toString();
+        synchronized (Genome.class) {
+            cache = tokens;
+            cache = traitId < cache.length ? cache.clone() : Arrays.copyOf(cache, Math.max(traitId + 1, Math.max(64, cache.length * 2)));
+            cache[traitId] = token;
+            tokens = cache;
+        }
+        return token;
+    }
+}
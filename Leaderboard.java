@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Leaderboard: creatures of one PopulationStore ranked by a score function,
+ * kept in an indexed binary max-heap.
+ *
+ * add / remove / update are O(log n), {@link #top()} is O(1) and
+ * {@link #top(int)} is O(k log k). Equal scores rank in the order the
+ * creatures were added, which matches a stable sort of the population list.
+ * Scores are cached; callers either {@link #update} a creature they just
+ * changed, or {@link #refresh()} after a population-wide pass, which
+ * re-scores only creatures whose store version moved. Not thread-safe.
+ */
+public final class Leaderboard {
+    private final PopulationStore store;
+    private ToIntFunction<AICreature> scorer;
+
+    private int[] heap = new int[16];   // slots, best first
+    private int size;
+    // by slot
+    private int[] position = new int[0];   // index in heap, -1 when absent
+    private int[] score = new int[0];
+    private long[] order = new long[0];    // insertion sequence, tie-breaker
+    private int[] seenVersion = new int[0];
+    private AICreature[] members = new AICreature[0];
+    private long nextOrder;
+
+    public Leaderboard(PopulationStore store, ToIntFunction<AICreature> scorer) {
+        this.store = store;
+        this.scorer = scorer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(AICreature c) {
+        int slot = c.slot();
+        return c.store() == store && slot < members.length && members[slot] == c;
+    }
+
+    public void add(AICreature c) {
+        if (c.store() != store) throw new IllegalArgumentException("Creature belongs to another population store");
+        if (contains(c)) return;
+        int slot = c.slot();
+        ensureSlot(slot);
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        members[slot] = c;
+        order[slot] = nextOrder++;
+        rescore(slot);
+        heap[size] = slot;
+        position[slot] = size++;
+        siftUp(position[slot]);
+    }
+
+    public void remove(AICreature c) {
+        if (!contains(c)) return;
+        int slot = c.slot();
+        int at = position[slot];
+        int last = heap[--size];
+        position[slot] = -1;
+        members[slot] = null;
+        if (at < size) {
+            heap[at] = last;
+            position[last] = at;
+            siftDown(at);
+            siftUp(position[last]);
+        }
+    }
+
+    /**
+     * Re-score one creature after it changed.
+     */
+    public void update(AICreature c) {
+        if (!contains(c)) return;
+        int slot = c.slot();
+        reposition(slot, scorer.applyAsInt(c));
+    }
+
+    /**
+     * Re-score every creature whose store version changed since it was last scored.
+     */
+    public void refresh() {
+        // walk by slot: updates reorder the heap, not the slots
+        int[] version = store.version;
+        for (int slot = 0; slot < members.length; slot++) {
+            if (members[slot] != null && seenVersion[slot] != version[slot]) update(members[slot]);
+        }
+    }
+
+    /**
+     * Like {@link #refresh()}, but the new scores come from a by-slot column
+     * that a {@link BatchScorer} filled with this board's score function.
+     */
+    public void refresh(int[] scoresBySlot) {
+        int[] version = store.version;
+        for (int slot = 0; slot < members.length; slot++) {
+            if (members[slot] != null && seenVersion[slot] != version[slot]) reposition(slot, scoresBySlot[slot]);
+        }
+    }
+
+    /**
+     * Switch to a new score function (e.g. after the environment changed) and rebuild.
+     */
+    public void rescoreAll(ToIntFunction<AICreature> scorer) {
+        this.scorer = scorer;
+        for (int i = 0; i < size; i++) rescore(heap[i]);
+        for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+    }
+
+    /** Best creature, or null when empty. */
+    public AICreature top() {
+        return size == 0 ? null : members[heap[0]];
+    }
+
+    /** Cached score of a creature on the board. */
+    public int score(AICreature c) {
+        if (!contains(c)) throw new IllegalArgumentException("Creature is not on the leaderboard");
+        return score[c.slot()];
+    }
+
+    /**
+     * The best {@code k} creatures, best first, without touching the rest of the heap.
+     */
+    public List<AICreature> top(int k) {
+        k = Math.min(k, size);
+        List<AICreature> out = new ArrayList<>(k);
+        if (k == 0) return out;
+        // frontier of heap indices whose parents were already taken, itself a small heap
+        int[] frontier = new int[2 * k + 1];
+        int n = 0;
+        frontier[n++] = 0;
+        while (out.size() < k) {
+            int best = frontier[0];
+            frontier[0] = frontier[--n];
+            frontierDown(frontier, n, 0);
+            out.add(members[heap[best]]);
+            for (int child = 2 * best + 1; child <= 2 * best + 2 && child < size; child++) {
+                frontier[n] = child;
+                frontierUp(frontier, n++);
+            }
+        }
+        return out;
+    }
+
+    private void reposition(int slot, int newScore) {
+        int before = score[slot];
+        score[slot] = newScore;
+        seenVersion[slot] = store.version[slot];
+        if (newScore > before) siftUp(position[slot]);
+        else if (newScore < before) siftDown(position[slot]);
+    }
+
+    private void rescore(int slot) {
+        score[slot] = scorer.applyAsInt(members[slot]);
+        seenVersion[slot] = store.version[slot];
+    }
+
+    // slot a ranks above slot b
+    private boolean above(int a, int b) {
+        return score[a] != score[b] ? score[a] > score[b] : order[a] < order[b];
+    }
+
+    private void siftUp(int i) {
+        int slot = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!above(slot, heap[parent])) break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = slot;
+        position[slot] = i;
+    }
+
+    private void siftDown(int i) {
+        int slot = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && above(heap[child + 1], heap[child])) child++;
+            if (!above(heap[child], slot)) break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = slot;
+        position[slot] = i;
+    }
+
+    private void frontierUp(int[] f, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!above(heap[f[i]], heap[f[parent]])) break;
+            int t = f[i]; f[i] = f[parent]; f[parent] = t;
+            i = parent;
+        }
+    }
+
+    private void frontierDown(int[] f, int n, int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) return;
+            if (child + 1 < n && above(heap[f[child + 1]], heap[f[child]])) child++;
+            if (!above(heap[f[child]], heap[f[i]])) return;
+            int t = f[i]; f[i] = f[child]; f[child] = t;
+            i = child;
+        }
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < members.length) return;
+        int cap = Math.max(slot + 1, Math.max(16, members.length * 2));
+        int old = position.length;
+        position = Arrays.copyOf(position, cap);
+        Arrays.fill(position, old, cap, -1);
+        score = Arrays.copyOf(score, cap);
+        order = Arrays.copyOf(order, cap);
+        seenVersion = Arrays.copyOf(seenVersion, cap);
+        members = Arrays.copyOf(members, cap);
+    }
+}
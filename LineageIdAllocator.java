@@ -0,0 +1,106 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LineageIdAllocator: hands out unique lineage ids to creatures.
+ *
+ * Each thread draws ids from its own block of {@code blockSize} contiguous
+ * ids, so the hot path is a thread-local increment; only refilling a block
+ * touches the shared counter. The high-water mark is persisted ahead of use
+ * (one lease of many blocks at a time), so after a restart the allocator
+ * resumes above every id that could have been handed out and ids in
+ * fossils.csv never collide across runs.
+ */
+public final class LineageIdAllocator {
+    public static final String DEFAULT_FILE = "lineage.hwm";  // kept next to fossils.txt / fossils.csv
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final int BLOCKS_PER_LEASE = 64;
+
+    private static final LineageIdAllocator SHARED = new LineageIdAllocator(new File(DEFAULT_FILE), DEFAULT_BLOCK_SIZE);
+
+    private final File hwmFile;
+    private final int blockSize;
+    private final AtomicLong nextBlockStart;
+    private volatile long leasedLimit;  // ids below this are covered by the persisted mark
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[]{0, 0}); // {next, end}
+
+    public LineageIdAllocator(File hwmFile, int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("blockSize must be positive");
+        this.hwmFile = hwmFile;
+        this.blockSize = blockSize;
+        long start = readHighWaterMark(hwmFile);
+        this.nextBlockStart = new AtomicLong(start);
+        this.leasedLimit = start;
+    }
+
+    public static LineageIdAllocator shared() {
+        return SHARED;
+    }
+
+    /**
+     * Next unique lineage id for the calling thread.
+     */
+    public int next() {
+        long[] b = block.get();
+        if (b[0] == b[1]) refill(b);
+        long id = b[0]++;
+        return (int) id;
+    }
+
+    /**
+     * Highest id (exclusive) that may have been handed out; what a restart resumes from.
+     */
+    public long highWaterMark() {
+        return leasedLimit;
+    }
+
+    /**
+     * Move the counter past {@code id} (e.g. after restoring a checkpoint whose
+     * ids must not be reissued). Blocks already held by threads are unaffected.
+     */
+    public void advancePast(long id) {
+        nextBlockStart.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private void refill(long[] b) {
+        long start = nextBlockStart.getAndAdd(blockSize);
+        long end = start + blockSize;
+        if (end > Integer.MAX_VALUE) throw new IllegalStateException("Lineage id space exhausted");
+        if (end > leasedLimit) extendLease(end);
+        b[0] = start;
+        b[1] = end;
+    }
+
+    private synchronized void extendLease(long needed) {
+        if (needed <= leasedLimit) return;
+        long limit = Math.min(Integer.MAX_VALUE, needed + (long) blockSize * BLOCKS_PER_LEASE);
+        writeHighWaterMark(limit);
+        leasedLimit = limit;
+    }
+
+    private static long readHighWaterMark(File file) {
+        if (!file.exists()) return 1;
+        try {
+            String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            return Math.max(1, Long.parseLong(text));
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Failed to read lineage high-water mark: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void writeHighWaterMark(long limit) {
+        // write-then-rename so a crash never leaves a truncated mark behind
+        File tmp = new File(hwmFile.getPath() + ".tmp");
+        try {
+            Files.write(tmp.toPath(), (limit + "\n").getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), hwmFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to persist lineage high-water mark: " + e.getMessage());
+        }
+    }
+}
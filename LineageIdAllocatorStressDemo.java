@@ -0,0 +1,94 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stress check for LineageIdAllocator: spawns millions of creatures from
+ * 1, 2, 4, ... threads, verifies that no lineage id is handed out twice and
+ * prints throughput per thread count so the scaling can be compared.
+ *
+ * Usage: java LineageIdAllocatorStressDemo [creaturesPerThread] [maxThreads]
+ * Exits with status 1 if a duplicate id is detected.
+ */
+public class LineageIdAllocatorStressDemo {
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        // separate mark file so the stress run does not consume ids from the real lineage.hwm
+        File hwm = File.createTempFile("lineage-stress", ".hwm");
+        hwm.delete();
+        hwm.deleteOnExit();
+        LineageIdAllocator allocator = new LineageIdAllocator(hwm, LineageIdAllocator.DEFAULT_BLOCK_SIZE);
+
+        System.out.println("=== LineageIdAllocator stress: " + perThread + " creatures per thread ===");
+        System.out.printf("%-8s %-12s %-14s %-10s\n", "Threads", "Creatures", "Spawns/sec", "Speedup");
+        double baseline = 0;
+        boolean ok = true;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double rate = run(allocator, threads, perThread);
+            if (rate < 0) {
+                ok = false;
+                break;
+            }
+            if (threads == 1) baseline = rate;
+            System.out.printf("%-8d %-12d %-14.0f %-10.2f\n", threads, (long) threads * perThread, rate, rate / baseline);
+        }
+
+        // a fresh allocator on the same mark file must resume above every issued id
+        LineageIdAllocator restarted = new LineageIdAllocator(hwm, LineageIdAllocator.DEFAULT_BLOCK_SIZE);
+        int resumed = restarted.next();
+        if (resumed < allocator.highWaterMark()) {
+            System.out.println("FAIL: restarted allocator reissued id " + resumed);
+            ok = false;
+        } else {
+            System.out.println("Restart resumes at id " + resumed + " (high-water mark " + allocator.highWaterMark() + ")");
+        }
+        System.out.println(ok ? "OK: no duplicate lineage ids" : "FAILED");
+        if (!ok) System.exit(1);
+    }
+
+    /**
+     * Spawn creatures on {@code threads} threads, each into its own store so
+     * the allocator is the only shared structure. Returns spawns/sec, or -1 on
+     * a duplicate id.
+     */
+    private static double run(LineageIdAllocator allocator, int threads, int perThread) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<int[]>> futures = new ArrayList<>();
+        String[] traits = {"adaptive", "agile"};
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                PopulationStore store = new PopulationStore(1024, allocator);
+                int[] ids = new int[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    AICreature c = new AICreature(store, traits);
+                    ids[i] = c.getLineageId();
+                    store.release(c);  // keep the store small; only the id matters here
+                }
+                return ids;
+            }));
+        }
+        List<int[]> results = new ArrayList<>();
+        for (Future<int[]> f : futures) results.add(f.get());
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        long[] seen = new long[(int) ((allocator.highWaterMark() + 64) >>> 6)];
+        for (int[] ids : results) {
+            for (int id : ids) {
+                long bit = 1L << id;
+                if ((seen[id >>> 6] & bit) != 0) {
+                    System.out.println("FAIL: duplicate lineage id " + id + " with " + threads + " threads");
+                    return -1;
+                }
+                seen[id >>> 6] |= bit;
+            }
+        }
+        return (double) threads * perThread / (elapsed / 1e9);
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * LineageRatings: Elo rating per lineage id, updated from duel results.
+ *
+ * Every lineage starts at {@link #DEFAULT_RATING}. A duel moves each side
+ * by K times (result - expected), with result 1 / 0.5 / 0 and expected
+ * 1 / (1 + 10^((opponent - own) / 400)). K is {@link #PROVISIONAL_K} for the
+ * first {@link #PROVISIONAL_GAMES} games of a lineage and {@link #K} after
+ * that, so newcomers find their level in a few duels and settled ratings
+ * stay put. Ratings live in open-addressing primitive arrays keyed by
+ * lineage id. Lineage ids are never reused, so a rating lives as long as
+ * its creature: the world {@link #remove removes} it when the creature
+ * dies, and only checkpoints carry ratings across a restart. Not
+ * thread-safe.
+ */
+public final class LineageRatings {
+    public static final double DEFAULT_RATING = 1500;
+    public static final double K = 16;
+    public static final double PROVISIONAL_K = 40;
+    public static final int PROVISIONAL_GAMES = 10;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private double[] rating;
+    private int[] games;
+    private int size;
+
+    public LineageRatings() {
+        allocate(16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double rating(int lineage) {
+        int i = find(lineage);
+        return keys[i] == EMPTY ? DEFAULT_RATING : rating[i];
+    }
+
+    public int games(int lineage) {
+        int i = find(lineage);
+        return keys[i] == EMPTY ? 0 : games[i];
+    }
+
+    /**
+     * Probability-like expected score of a player rated {@code own} against {@code opponent}.
+     */
+    public static double expected(double own, double opponent) {
+        return 1.0 / (1.0 + Math.pow(10.0, (opponent - own) / 400.0));
+    }
+
+    public void record(CombatSystem.DuelResult res) {
+        double resultA = res.draw ? 0.5 : res.winner == res.a ? 1.0 : 0.0;
+        record(res.a.getLineageId(), res.b.getLineageId(), resultA);
+    }
+
+    /**
+     * Rate one game between two lineages; {@code resultA} is 1, 0.5 or 0 from a's side.
+     */
+    public void record(int lineageA, int lineageB, double resultA) {
+        if (lineageA == lineageB) return;
+        int a = slotFor(lineageA);
+        int b = slotFor(lineageB);
+        if (keys[a] != lineageA) a = find(lineageA);   // b's insertion may have rehashed
+        double ra = rating[a], rb = rating[b];
+        double ea = expected(ra, rb);
+        rating[a] = ra + k(games[a]) * (resultA - ea);
+        rating[b] = rb + k(games[b]) * ((1.0 - resultA) - (1.0 - ea));
+        games[a]++;
+        games[b]++;
+    }
+
+    /**
+     * Forget a lineage (e.g. when its creature dies).
+     */
+    public void remove(int lineage) {
+        int i = find(lineage);
+        if (keys[i] != lineage) return;
+        keys[i] = EMPTY;
+        size--;
+        // shift the rest of the probe run back over the hole so lookups still reach it
+        int mask = keys.length - 1;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            if (((j - home(keys[j])) & mask) < ((j - i) & mask)) continue;
+            keys[i] = keys[j];
+            rating[i] = rating[j];
+            games[i] = games[j];
+            keys[j] = EMPTY;
+            i = j;
+        }
+    }
+
+    /**
+     * Drop every lineage {@code keep} rejects (e.g. extinct ones).
+     */
+    public void retain(IntPredicate keep) {
+        int[] oldKeys = keys;
+        double[] oldRating = rating;
+        int[] oldGames = games;
+        allocate(oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && keep.test(oldKeys[i])) put(oldKeys[i], oldRating[i], oldGames[i]);
+        }
+    }
+
+    // the hash table as it is, so a restored table iterates in the same order
+    void writeTo(Checkpoint.Out out) {
+        out.putInt(keys.length).putInt(size);
+        out.putInts(keys, 0, keys.length).putDoubles(rating, 0, keys.length).putInts(games, 0, keys.length);
+    }
+
+    static LineageRatings readFrom(Checkpoint.In in) {
+        LineageRatings ratings = new LineageRatings();
+        int capacity = in.getLength(16);
+        if (Integer.bitCount(capacity) != 1) throw new IllegalStateException("Rating table of " + capacity + " entries");
+        ratings.allocate(capacity);
+        ratings.size = in.getInt();
+        in.getInts(ratings.keys, capacity);
+        in.getDoubles(ratings.rating, capacity);
+        in.getInts(ratings.games, capacity);
+        return ratings;
+    }
+
+    private static double k(int games) {
+        return games < PROVISIONAL_GAMES ? PROVISIONAL_K : K;
+    }
+
+    private void put(int lineage, double r, int g) {
+        int i = slotFor(lineage);
+        rating[i] = r;
+        games[i] = g;
+    }
+
+    // index of the lineage, inserting it at the default rating if absent
+    private int slotFor(int lineage) {
+        if (lineage == EMPTY) throw new IllegalArgumentException("Reserved lineage id " + lineage);
+        int i = find(lineage);
+        if (keys[i] == lineage) return i;
+        if ((size + 1) * 4 > keys.length * 3) {
+            int[] oldKeys = keys;
+            double[] oldRating = rating;
+            int[] oldGames = games;
+            allocate(oldKeys.length * 2);
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) put(oldKeys[j], oldRating[j], oldGames[j]);
+            }
+            i = find(lineage);
+        }
+        keys[i] = lineage;
+        rating[i] = DEFAULT_RATING;
+        games[i] = 0;
+        size++;
+        return i;
+    }
+
+    // index holding the lineage, or the empty index where it would go
+    private int find(int lineage) {
+        int mask = keys.length - 1;
+        int i = home(lineage);
+        while (keys[i] != EMPTY && keys[i] != lineage) i = (i + 1) & mask;
+        return i;
+    }
+
+    // first index the lineage probes
+    private int home(int lineage) {
+        int h = lineage * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        rating = new double[capacity];
+        games = new int[capacity];
+        size = 0;
+    }
+}
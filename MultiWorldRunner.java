@@ -0,0 +1,342 @@
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * MultiWorldRunner: simulates many independent planets in one JVM.
+ *
+ * Every world is a full PlanetGenerator with its own population store,
+ * environment, evolution manager and seed stream ({@code seeds.world(i)}),
+ * and writes its fossils, lineage ratings, console log and (with
+ * --duel-log) duel log into its own directory ({@code <out>/world-<i>/}).
+ * The only state the worlds share is thread-safe: the lineage id allocator,
+ * the trait dictionary and the compiled environment profiles. At most
+ * {@code parallelism} worlds run at a time, on platform threads or, when the
+ * JVM has them, on virtual threads.
+ *
+ * Usage: java MultiWorldRunner [--worlds N] [--threads P] [--generations G]
+ *        [--competitors C] [--seed S] [--out DIR] [--virtual]
+ *        [--tournament all-pairs|random-k|swiss|elimination|neighborhood|rated]
+ *        [--matches-per-creature K]
+ *        [--combat-rules FILE]
+ *        [--duel-log] [--sync-fossils]
+ *        [--no-events] [--sample-events N]
+ */
+public class MultiWorldRunner {
+    private final SeedTree seeds;
+    private final File outputDir;
+    private final int parallelism;
+    private final boolean virtualThreads;
+    private int generations = 10;
+    private int competitors = 2;
+    private boolean competitionEnabled = true;
+    private TournamentScheduler tournament = TournamentScheduler.allPairs();
+    private boolean eventsEnabled = true;
+    private long sampleEvery = 1;
+    private boolean duelLogging;
+    private boolean asyncFossils = true;
+
+    // console output of world threads goes to that world's log file
+    private static final ThreadLocal<OutputStream> WORLD_LOG = new ThreadLocal<>();
+
+    /**
+     * Result of one world, as merged into the final report.
+     */
+    public static class WorldOutcome {
+        public final int index;
+        public final long seed;
+        public final String planetName;
+        public final String planetType;
+        public final String atmosphere;
+        public final int survivors;
+        public final int extinctions;
+        public final int oldestSurvivorAge;
+        public final String oldestSurvivor;
+        public final long elapsedMillis;
+        public final String error;   // null when the world finished normally
+
+        public WorldOutcome(int index, long seed, String planetName, String planetType, String atmosphere,
+                            int survivors, int extinctions, int oldestSurvivorAge, String oldestSurvivor,
+                            long elapsedMillis, String error) {
+            this.index = index;
+            this.seed = seed;
+            this.planetName = planetName;
+            this.planetType = planetType;
+            this.atmosphere = atmosphere;
+            this.survivors = survivors;
+            this.extinctions = extinctions;
+            this.oldestSurvivorAge = oldestSurvivorAge;
+            this.oldestSurvivor = oldestSurvivor;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+    }
+
+    public MultiWorldRunner(SeedTree seeds, File outputDir, int parallelism, boolean virtualThreads) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be >= 1");
+        this.seeds = seeds;
+        this.outputDir = outputDir;
+        this.parallelism = parallelism;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public void setGenerations(int generations) {
+        this.generations = generations;
+    }
+
+    public void setCompetitors(int competitors) {
+        this.competitors = competitors;
+    }
+
+    public void setCompetitionEnabled(boolean competitionEnabled) {
+        this.competitionEnabled = competitionEnabled;
+    }
+
+    /** Pairing scheme for every world; schedulers keep no state between tournaments, so one is shared. */
+    public void setTournamentScheduler(TournamentScheduler tournament) {
+        this.tournament = tournament;
+    }
+
+    /**
+     * Per-world event logging: off entirely, or every {@code sampleEvery}-th
+     * event of each type (milestones are always kept).
+     */
+    public void setEventLogging(boolean enabled, long sampleEvery) {
+        this.eventsEnabled = enabled;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Record each world's duels in a DuelLog under world-N/duels.
+     */
+    public void setDuelLogging(boolean enabled) {
+        this.duelLogging = enabled;
+    }
+
+    /**
+     * Write each world's fossils on a background stage (default) or inline.
+     */
+    public void setAsyncFossils(boolean enabled) {
+        this.asyncFossils = enabled;
+    }
+
+    /**
+     * Run worlds 0..count-1 and return their outcomes in world order.
+     */
+    public List<WorldOutcome> runWorlds(int count) throws InterruptedException {
+        installLogRouting();
+        Semaphore slots = new Semaphore(parallelism);
+        ExecutorService pool = newExecutor();
+        List<Future<WorldOutcome>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                final int index = i;
+                futures.add(pool.submit(() -> {
+                    slots.acquire();
+                    try {
+                        return runWorld(index);
+                    } finally {
+                        slots.release();
+                    }
+                }));
+            }
+            List<WorldOutcome> outcomes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                try {
+                    outcomes.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    outcomes.add(new WorldOutcome(i, seeds.world(i).seed(), null, null, null, 0, 0, 0, null, 0, String.valueOf(e.getCause())));
+                }
+            }
+            return outcomes;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private WorldOutcome runWorld(int index) {
+        SeedTree worldSeeds = seeds.world(index);
+        File dir = new File(outputDir, "world-" + index);
+        dir.mkdirs();
+        long start = System.nanoTime();
+        FossilRecord fossils = new FossilRecord(dir);
+        fossils.setAsync(asyncFossils);
+        PlanetGenerator world = new PlanetGenerator(worldSeeds, fossils);
+        world.setNumCompetitors(competitors);
+        world.setCompetitionEnabled(competitionEnabled);
+        world.setTournamentScheduler(tournament);
+        String error = null;
+        try (PrintStream log = new PrintStream(new BufferedOutputStream(new FileOutputStream(new File(dir, "simulation.log"))), false, "UTF-8")) {
+            WORLD_LOG.set(log);
+            SimulationEventSink events = eventsEnabled ? new AsyncTextEventSink(log) : SimulationEventSink.NONE;
+            if (sampleEvery > 1) events = new SamplingEventSink(events, sampleEvery);
+            world.setEventSink(events);
+            try {
+                if (duelLogging) world.setDuelLog(DuelLog.open(dir.toPath().resolve("duels")));
+                world.generatePlanetAndCreature();
+                world.runEvolutionSimulation(generations);
+            } catch (RuntimeException | IOException e) {
+                error = e.toString();
+            } finally {
+                events.close();
+                fossils.setAsync(false);
+                System.out.flush();
+                WORLD_LOG.remove();
+                if (world.getDuelLog() != null) world.getDuelLog().close();
+            }
+        } catch (IOException e) {
+            error = "log: " + e.getMessage();
+        }
+
+        AICreature oldest = null;
+        for (AICreature c : world.getCreatures()) {
+            if (oldest == null || c.getAge() > oldest.getAge()) oldest = c;
+        }
+        return new WorldOutcome(index, worldSeeds.seed(), world.getCurrentPlanetName(), world.getCurrentPlanetType(),
+                world.getCurrentPlanetAtmosphere(), world.getCreatures().size(), world.getExtinctionCount(),
+                oldest == null ? 0 : oldest.getAge(), oldest == null ? null : oldest.getGeneticCode(),
+                (System.nanoTime() - start) / 1_000_000, error);
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads) {
+            // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; the
+            // semaphore in runWorlds keeps the number of running worlds bounded
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("Virtual threads not available on this JVM, using platform threads.");
+            }
+        }
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+    private static synchronized void installLogRouting() {
+        if (System.out instanceof WorldRoutingStream) return;
+        System.setOut(new WorldRoutingStream(System.out));
+    }
+
+    /**
+     * Stdout replacement that sends bytes written by a world thread to that
+     * world's log and everything else to the original console.
+     */
+    private static class WorldRoutingStream extends PrintStream {
+        WorldRoutingStream(PrintStream console) {
+            super(new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    target(console).write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    target(console).write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    target(console).flush();
+                }
+            }, true);
+        }
+
+        private static OutputStream target(PrintStream console) {
+            OutputStream log = WORLD_LOG.get();
+            return log != null ? log : console;
+        }
+    }
+
+    /**
+     * Print one line per world followed by the merged totals.
+     */
+    public static void printReport(List<WorldOutcome> outcomes, long wallMillis) {
+        System.out.println("\n=== Multi-World Report ===");
+        System.out.printf("%-6s %-20s %-22s %-10s %-12s %-8s %-10s\n", "World", "Planet", "Environment", "Survivors", "Extinctions", "MaxAge", "Millis");
+        int survivors = 0, extinctions = 0, failed = 0;
+        WorldOutcome oldest = null;
+        long cpuMillis = 0;
+        for (WorldOutcome o : outcomes) {
+            if (o.error != null) {
+                failed++;
+                System.out.printf("%-6d FAILED: %s\n", o.index, o.error);
+                continue;
+            }
+            survivors += o.survivors;
+            extinctions += o.extinctions;
+            cpuMillis += o.elapsedMillis;
+            if (oldest == null || o.oldestSurvivorAge > oldest.oldestSurvivorAge) oldest = o;
+            System.out.printf("%-6d %-20s %-22s %-10d %-12d %-8d %-10d\n", o.index, o.planetName,
+                    o.planetType + "/" + o.atmosphere, o.survivors, o.extinctions, o.oldestSurvivorAge, o.elapsedMillis);
+        }
+        System.out.println("Worlds: " + outcomes.size() + " (failed " + failed + "), survivors: " + survivors + ", extinctions: " + extinctions);
+        if (oldest != null && oldest.oldestSurvivor != null) {
+            System.out.println("Oldest survivor: " + oldest.oldestSurvivor + " on " + oldest.planetName + " (world " + oldest.index + ", seed " + oldest.seed + ")");
+        }
+        if (wallMillis > 0) {
+            System.out.printf("Wall time: %d ms, summed world time: %d ms (%.2fx)\n", wallMillis, cpuMillis, (double) cpuMillis / wallMillis);
+        }
+        System.out.println("=== End Multi-World Report ===\n");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int worlds = 8;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int generations = 10;
+        int competitors = 2;
+        boolean virtual = false;
+        boolean competition = true;
+        TournamentScheduler.Mode tournamentMode = TournamentScheduler.Mode.ALL_PAIRS;
+        int matchesPerCreature = 0;
+        boolean events = true;
+        boolean duelLog = false;
+        boolean syncFossils = false;
+        long sampleEvery = 1;
+        String out = "worlds";
+        SeedTree seeds = null;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            boolean hasValue = i + 1 < args.length;
+            if (a.equals("--worlds") && hasValue) worlds = Integer.parseInt(args[++i]);
+            else if (a.equals("--threads") && hasValue) threads = Integer.parseInt(args[++i]);
+            else if (a.equals("--generations") && hasValue) generations = Integer.parseInt(args[++i]);
+            else if (a.equals("--competitors") && hasValue) competitors = Integer.parseInt(args[++i]);
+            else if (a.equals("--seed") && hasValue) seeds = new SeedTree(Long.parseLong(args[++i]));
+            else if (a.equals("--out") && hasValue) out = args[++i];
+            else if (a.equals("--virtual")) virtual = true;
+            else if (a.equals("--no-competition")) competition = false;
+            else if (a.equals("--tournament") && hasValue) tournamentMode = TournamentScheduler.Mode.parse(args[++i]);
+            else if (a.equals("--matches-per-creature") && hasValue) matchesPerCreature = Integer.parseInt(args[++i]);
+            else if (a.equals("--combat-rules") && hasValue) CombatSystem.setRules(CombatRules.load(Paths.get(args[++i])));
+            else if (a.equals("--no-events")) events = false;
+            else if (a.equals("--duel-log")) duelLog = true;
+            else if (a.equals("--sync-fossils")) syncFossils = true;
+            else if (a.equals("--sample-events") && hasValue) sampleEvery = Long.parseLong(args[++i]);
+        }
+        if (seeds == null) seeds = SeedTree.fromEntropy();
+
+        System.out.println("Running " + worlds + " worlds on " + threads + (virtual ? " virtual" : "") + " threads, seed " + seeds.seed() + ", output in " + out + "/");
+        MultiWorldRunner runner = new MultiWorldRunner(seeds, new File(out), threads, virtual);
+        runner.setGenerations(generations);
+        runner.setCompetitors(competitors);
+        runner.setCompetitionEnabled(competition);
+        runner.setTournamentScheduler(TournamentScheduler.of(tournamentMode,
+                matchesPerCreature > 0 ? matchesPerCreature : TournamentScheduler.defaultMatches(tournamentMode)));
+        runner.setEventLogging(events, sampleEvery);
+        runner.setDuelLogging(duelLog);
+        runner.setAsyncFossils(!syncFossils);
+        long start = System.nanoTime();
+        List<WorldOutcome> outcomes = runner.runWorlds(worlds);
+        printReport(outcomes, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,67 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Allocation-rate regression check for the mutation engine.
+ *
+ * Runs tick + training + physical mutation over a population with the quiet
+ * engine and reports bytes allocated per creature-generation on the calling
+ * thread (via com.sun.management.ThreadMXBean). Exits with status 1 when the
+ * rate exceeds the budget, so it can guard long runs against young-GC churn.
+ *
+ * Usage: java MutationAllocationCheck [population] [generations] [budgetBytes]
+ */
+public class MutationAllocationCheck {
+    public static void main(String[] args) {
+        int population = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        double budget = args.length > 2 ? Double.parseDouble(args[2]) : 16.0;
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("Per-thread allocation accounting not available on this JVM; skipping.");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(42);
+        PopulationStore store = new PopulationStore(population);
+        List<AICreature> creatures = new ArrayList<>();
+        for (int i = 0; i < population; i++) {
+            creatures.add(new AICreature(store, new String[]{"level:1", "weak-sense", "speed:low", "Gills"}));
+        }
+        EnvironmentProfile env = EnvironmentProfile.of("Ocean", "Carbon monoxide");
+        MutationEngine engine = MutationEngine.QUIET;
+
+        // warm up so class loading, interning and JIT are out of the measurement
+        runGenerations(creatures, engine, random, env, Math.max(1, generations / 4));
+
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        runGenerations(creatures, engine, random, env, generations);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        double perCreatureGen = (double) allocated / ((double) population * generations);
+        System.out.printf("Allocated %d bytes over %d creature-generations: %.2f bytes/creature-generation (budget %.2f)\n",
+                allocated, (long) population * generations, perCreatureGen, budget);
+        if (perCreatureGen > budget) {
+            System.out.println("FAIL: mutation engine allocation rate above budget");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static void runGenerations(List<AICreature> creatures, MutationEngine engine, Random random,
+                                       EnvironmentProfile env, int generations) {
+        for (int g = 0; g < generations; g++) {
+            for (AICreature c : creatures) {
+                engine.tick(c, random, env);
+                engine.train(c, random);
+                if (random.nextDouble() < 0.25) engine.mutatePhysical(c, random);
+            }
+        }
+    }
+}
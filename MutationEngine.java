@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * MutationEngine: applies ticks, training and physical mutations to a
+ * creature's traits in place.
+ *
+ * Candidate lists live in reusable per-thread scratch buffers and trait
+ * rewrites (sense -> perception, level:N -> level:N+1, ...) are resolved
+ * once per trait id and cached, so a mutation that changes nothing allocates
+ * nothing, and one that does only edits the creature's id array. The
+ * creature's String[] view is rebuilt lazily, and only after a real change.
+ *
+ * Random draws happen in exactly the same order as the original
+ * list-copying implementation, so seeded runs are unchanged. Mutations are
+ * reported as {@link SimulationEvent.MutationEvent}s to the engine's sink.
+ */
+public final class MutationEngine {
+    private static final String[] DEFAULT_TRAITS = {
+        "adaptive", "resilient", "quick-learner", "strong-sense", "agile",
+        "fragile", "slow-reaction", "forgetful", "weak-sense"
+    };
+    private static final String[] POSITIVE_TRAITS = {"adaptive", "resilient", "quick-learner", "strong-sense", "agile"};
+    private static final int[] DEFAULT_TRAIT_IDS = internAll(DEFAULT_TRAITS);
+    private static final int[] POSITIVE_TRAIT_IDS = internAll(POSITIVE_TRAITS);
+    private static final int THICK_SKIN = TraitDictionary.intern("thick-skin");
+    private static final int SHARP_VISION = TraitDictionary.intern("sharp-vision");
+
+    // rewrite target per trait id for the "modify" mutation
+    private static final int UNRESOLVED = -1;
+    private static final int REPLACE_FROM_DEFAULTS = -2;
+    private static volatile int[] modifyTargets = new int[0];
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** Engine that reports every mutation on stdout, as the simulation always has. */
+    public static final MutationEngine LOGGING = new MutationEngine(TextEventSink.STDOUT);
+    /** Engine that mutates silently (benchmarks, allocation checks, large runs). */
+    public static final MutationEngine QUIET = new MutationEngine(SimulationEventSink.NONE);
+
+    private final SimulationEventSink events;
+
+    public MutationEngine(boolean logging) {
+        this(logging ? TextEventSink.STDOUT : SimulationEventSink.NONE);
+    }
+
+    public MutationEngine(SimulationEventSink events) {
+        this.events = events;
+    }
+
+    public SimulationEventSink getEventSink() {
+        return events;
+    }
+
+    /** An engine like this one that reports to {@code events} instead. */
+    public MutationEngine reportingTo(SimulationEventSink events) {
+        return new MutationEngine(events);
+    }
+
+    private static final class Scratch {
+        final int[] missingVital = new int[8];
+        final int[] pool = new int[DEFAULT_TRAIT_IDS.length];
+    }
+
+    private static int[] internAll(String[] traits) {
+        int[] ids = new int[traits.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = TraitDictionary.intern(traits[i]);
+        return ids;
+    }
+
+    /**
+     * One update cycle for a creature: ages it and applies a probabilistic
+     * add/remove/modify mutation whose odds rise with environmental pressure.
+     */
+    public void tick(AICreature creature, RandomGenerator random, EnvironmentProfile environment) {
+        creature.incrementAge();
+        TraitSet traits = creature.getTraits();
+        Scratch scratch = SCRATCH.get();
+
+        // Determine environmental pressure based on planet type / atmosphere
+        double environmentalPressure = environment.pressure(traits);
+
+        // If creature is missing vital traits, boost chance further to encourage guided evolution
+        int[] missingVital = scratch.missingVital;
+        if (missingVital.length < environment.vitalTraitCount()) {
+            missingVital = new int[environment.vitalTraitCount()];
+        }
+        int missingVitalCount = environment.missingVital(traits, missingVital);
+
+        double effectiveMutationChance = creature.getMutationChance() + environmentalPressure + (missingVitalCount == 0 ? 0.0 : 0.25);
+        if (random.nextDouble() >= effectiveMutationChance) return;
+
+        int mutationType = random.nextInt(3); // 0: add, 1: remove, 2: modify
+        boolean logging = events.isEnabled();
+        SimulationEvent.Subject before = logging ? SimulationEvent.Subject.of(creature) : null;
+
+        switch (mutationType) {
+            case 0: // add a trait; prefer missing vital traits
+                if (missingVitalCount > 0 && random.nextDouble() < 0.8) {
+                    int vital = missingVital[random.nextInt(missingVitalCount)];
+                    if (!traits.contains(vital)) {
+                        creature.addTraitId(vital);
+                        if (logging) report(before, SimulationEvent.MutationEvent.Kind.VITAL_REEVOLVED, vital, -1);
+                    } else {
+                        if (logging) report(before, SimulationEvent.MutationEvent.Kind.VITAL_PRESENT, vital, -1);
+                    }
+                } else {
+                    // pick a trait from DEFAULT_TRAITS that isn't already present
+                    int[] pool = scratch.pool;
+                    int poolSize = 0;
+                    for (int t : DEFAULT_TRAIT_IDS) if (!traits.contains(t)) pool[poolSize++] = t;
+                    if (poolSize > 0) {
+                        int pick = pool[random.nextInt(poolSize)];
+                        creature.addTraitId(pick);
+                        if (logging) report(before, SimulationEvent.MutationEvent.Kind.ADDED, pick, -1);
+                    } else {
+                        // fallback to generated mutated trait
+                        int newTrait = TraitDictionary.intern("mutated_trait_" + (100 + random.nextInt(900)));
+                        creature.addTraitId(newTrait);
+                        if (logging) report(before, SimulationEvent.MutationEvent.Kind.ADDED_FALLBACK, newTrait, -1);
+                    }
+                }
+                break;
+            case 1: // remove a random trait
+                if (creature.getTraitCount() > 0) {
+                    int removed = creature.removeTraitAt(random.nextInt(creature.getTraitCount()));
+                    if (logging) report(before, SimulationEvent.MutationEvent.Kind.REMOVED, removed, -1);
+                } else {
+                    if (logging) report(before, SimulationEvent.MutationEvent.Kind.NOTHING_TO_REMOVE, -1, -1);
+                }
+                break;
+            case 2: // modify an existing trait
+                if (creature.getTraitCount() > 0) {
+                    // attempt several times to find a meaningful modification that doesn't duplicate
+                    boolean modifiedOk = false;
+                    for (int attempt = 0; attempt < 5 && !modifiedOk; attempt++) {
+                        int idx = random.nextInt(creature.getTraitCount());
+                        int oldTrait = creature.getTraitId(idx);
+                        int modified = modifyTarget(oldTrait);
+                        if (modified == REPLACE_FROM_DEFAULTS) {
+                            // pick a replacement from DEFAULT_TRAITS not already present
+                            modified = oldTrait;
+                            for (int cand : DEFAULT_TRAIT_IDS) {
+                                if (!traits.contains(cand) && cand != oldTrait) {
+                                    modified = cand;
+                                    break;
+                                }
+                            }
+                        }
+
+                        if (modified != oldTrait && !traits.contains(modified)) {
+                            creature.replaceTraitAt(idx, modified);
+                            if (logging) report(before, SimulationEvent.MutationEvent.Kind.MODIFIED, oldTrait, modified);
+                            modifiedOk = true;
+                        }
+                    }
+                    if (!modifiedOk && logging) report(before, SimulationEvent.MutationEvent.Kind.MODIFY_NO_OP, -1, -1);
+                } else {
+                    if (logging) report(before, SimulationEvent.MutationEvent.Kind.NOTHING_TO_MODIFY, -1, -1);
+                }
+                break;
+        }
+        creature.incrementMutationCount();
+    }
+
+    private void report(SimulationEvent.Subject creature, SimulationEvent.MutationEvent.Kind kind, int trait, int newTrait) {
+        events.accept(new SimulationEvent.MutationEvent(creature, kind, trait, newTrait));
+    }
+
+    /**
+     * Training: 30% chance to learn a random positive trait the creature lacks.
+     *
+     * @return true if the creature's traits changed
+     */
+    public boolean train(AICreature creature, RandomGenerator random) {
+        if (random.nextDouble() < 0.3) {
+            int newTrait = POSITIVE_TRAIT_IDS[random.nextInt(POSITIVE_TRAIT_IDS.length)];
+            if (!creature.hasTrait(newTrait)) {
+                creature.addTraitId(newTrait);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Physical mutation: 50% chance to gain thick skin or sharp vision.
+     *
+     * @return true if the creature's traits changed
+     */
+    public boolean mutatePhysical(AICreature creature, RandomGenerator random) {
+        if (random.nextBoolean()) {
+            int trait = random.nextBoolean() ? THICK_SKIN : SHARP_VISION;
+            creature.addTraitId(trait);
+            if (events.isEnabled()) report(SimulationEvent.Subject.of(creature), SimulationEvent.MutationEvent.Kind.PHYSICAL, trait, -1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Point mutation of an offspring's trait list before it hatches (see
+     * {@link ReproductionEngine}): add a default trait it lacks, drop a trait,
+     * or replace one with a default trait it lacks. {@code ids} needs room
+     * for one more id.
+     *
+     * @return the new trait count
+     */
+    static int mutateOffspring(int[] ids, int count, RandomGenerator random) {
+        int kind = random.nextInt(3);
+        if (kind == 1) {
+            if (count <= 1) return count;   // keep at least one trait
+            int at = random.nextInt(count);
+            System.arraycopy(ids, at + 1, ids, at, count - at - 1);
+            return count - 1;
+        }
+        int[] pool = SCRATCH.get().pool;
+        int poolSize = 0;
+        for (int t : DEFAULT_TRAIT_IDS) if (!containsId(ids, count, t)) pool[poolSize++] = t;
+        if (poolSize == 0) return count;
+        int pick = pool[random.nextInt(poolSize)];
+        if (kind == 0 || count == 0) {
+            ids[count] = pick;
+            return count + 1;
+        }
+        ids[random.nextInt(count)] = pick;
+        return count;
+    }
+
+    private static boolean containsId(int[] ids, int count, int id) {
+        for (int i = 0; i < count; i++) if (ids[i] == id) return true;
+        return false;
+    }
+
+    /**
+     * Cached rewrite target of a trait for the modify mutation, or
+     * REPLACE_FROM_DEFAULTS when the replacement depends on the creature.
+     */
+    private static int modifyTarget(int traitId) {
+        int[] targets = modifyTargets;
+        if (traitId < targets.length && targets[traitId] != UNRESOLVED) return targets[traitId];
+        int target = resolveModifyTarget(TraitDictionary.name(traitId));
+        synchronized (MutationEngine.class) {
+            targets = modifyTargets;
+            if (traitId >= targets.length) {
+                int oldLength = targets.length;
+                targets = Arrays.copyOf(targets, Math.max(traitId + 1, Math.max(64, oldLength * 2)));
+                Arrays.fill(targets, oldLength, targets.length, UNRESOLVED);
+            } else {
+                targets = targets.clone();
+            }
+            targets[traitId] = target;
+            modifyTargets = targets;
+        }
+        return target;
+    }
+
+    private static int resolveModifyTarget(String oldTrait) {
+        if (oldTrait.contains("sense")) {
+            return TraitDictionary.intern(oldTrait.replace("sense", "perception"));
+        } else if (oldTrait.startsWith("level:")) {
+            try {
+                int lvl = Integer.parseInt(oldTrait.split(":")[1]);
+                lvl = Math.min(lvl + 1, 5);
+                return TraitDictionary.intern("level:" + lvl);
+            } catch (Exception e) {
+                return TraitDictionary.intern("level:1");
+            }
+        } else if (oldTrait.contains("speed:low")) {
+            return TraitDictionary.intern(oldTrait.replace("speed:low", "speed:medium"));
+        }
+        return REPLACE_FROM_DEFAULTS;
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * PipelineStage: a step of the generation pipeline that runs on its own
+ * thread, fed through a bounded queue.
+ *
+ * The simulation thread submits items and carries on with the next
+ * generation; the stage thread drains the queue in batches and hands each
+ * batch to its handler, in submission order. A full queue blocks the
+ * producer, so a slow stage holds the simulation back instead of piling up
+ * memory. {@link #flush()} waits until everything submitted so far has been
+ * handled. A handler that throws loses its batch (reported on stderr); the
+ * stage keeps going.
+ */
+public final class PipelineStage<T> implements AutoCloseable {
+    private static final Object STOP = new Object();
+
+    private final String name;
+    private final int batchSize;
+    private final Consumer<List<T>> handler;
+    private final BlockingQueue<Object> queue;
+    private final Thread worker;
+    private final AtomicLong submitted = new AtomicLong();
+    private long handled;               // guarded by this
+    private volatile boolean closed;
+
+    public PipelineStage(String name, int capacity, int batchSize, Consumer<List<T>> handler) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::drain, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Queue an item, blocking while the queue is full. Items submitted after
+     * {@link #close()} are dropped.
+     */
+    public void submit(T item) {
+        if (closed) return;
+        submitted.incrementAndGet();
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            submitted.decrementAndGet();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Wait until every item submitted before this call has been handled. */
+    public void flush() {
+        long target = submitted.get();
+        synchronized (this) {
+            while (handled < target && worker.isAlive()) {
+                try {
+                    wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Handle what is queued, then stop the stage thread. */
+    @Override
+    public void close() {
+        if (closed) return;
+        flush();
+        closed = true;
+        try {
+            queue.put(STOP);
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() {
+        List<Object> taken = new ArrayList<>(batchSize);
+        List<T> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                taken.add(queue.take());
+                queue.drainTo(taken, batchSize - 1);
+                boolean stop = false;
+                for (Object o : taken) {
+                    if (o == STOP) stop = true;
+                    else batch.add((T) o);
+                }
+                if (!batch.isEmpty()) {
+                    try {
+                        handler.accept(batch);
+                    } catch (RuntimeException e) {
+                        System.err.println(name + ": dropped " + batch.size() + " item(s): " + e);
+                    }
+                }
+                synchronized (this) {
+                    handled += batch.size();
+                    notifyAll();
+                }
+                taken.clear();
+                batch.clear();
+                if (stop) return;
+            }
+        } catch (InterruptedException e) {
+            // daemon thread: the JVM is going away
+        }
+    }
+}
@@ -1,28 +1,301 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
 
 public class PlanetGenerator {
     private String[] planetTypes = {"Lava", "Ice", "Desert", "Ocean", "Forest", "Swamp", "Mountain"};
     private String[] atmosphereList = {"Oxygen-rich", "Nitrogen", "Methane", "Carbon monoxide"};
-    private List<AICreature> playerCreatures = new ArrayList<>();
-    private final CreatureEvolutionManager evolutionManager = new CreatureEvolutionManager(new Random());
-    private final Random rand = new Random();
+    // column storage for the primitive state of this planet's population
+    private final PopulationStore population = new PopulationStore(64);
+    // living creatures in spawn order; deaths are marked and compacted per batch
+    private final Population playerCreatures = new Population(population);
+    // creatures roam an extent x extent planet; the grid files them by position
+    private static final float PLANET_EXTENT = 1000f;
+    private SpatialGrid grid;
+    // spawn positions: the world's "placement" stream at setup, generation N's during it
+    private SplittableRandom placementRandom;
+    // competition scores of playerCreatures, kept current as creatures change
+    private final Leaderboard leaderboard = new Leaderboard(population, this::competitionScore);
+    // competition scores of the whole population per generation, fed to the leaderboard
+    private final BatchScorer batchScorer = new BatchScorer(population);
+    private int[] batchScores;
+    // every random draw of this world comes from a stream of this tree
+    private final SeedTree seeds;
+    private final SplittableRandom setupRandom;
+    private final CreatureEvolutionManager evolutionManager;
+    private int generationsRun;
+    // position in the current runEvolutionSimulation call: generations done / asked for
+    private int runGeneration;
+    private int runLength;
+    private final FossilRecord fossils;
+    private int extinctions;
+    // all per-generation reporting goes through this sink
+    private SimulationEventSink events = TextEventSink.STDOUT;
     private String currentPlanetType;
     private String currentPlanetAtmosphere;
     private String currentPlanetName;
+    // compiled view of the current type/atmosphere; rebuilt only when the environment changes
+    private EnvironmentProfile environment;
     private boolean competitionEnabled = true;
     private int numCompetitors = 2;
+    // who duels whom in the competition round; all pairs unless configured
+    private TournamentScheduler tournament = TournamentScheduler.allPairs();
+    private ReproductionEngine reproduction;   // null: no breeding
+    private boolean parallelDuels = true;
+    // how many entries of the competition ranking are reported each generation
+    private int rankingReportSize = 10;
+    // binary record of every duel, when set
+    private DuelLog duelLog;
+    // Elo per living lineage from every duel; drives RATED tournaments, kept in checkpoints
+    private LineageRatings ratings = new LineageRatings();
+    // checkpoint written every checkpointEvery generations of a run (0: never)
+    private int checkpointEvery;
+    private Checkpoint.Out checkpointBuffer;
+
+    // chance of a PlanetCrisis each generation
+    private static final double CRISIS_CHANCE = 0.15;
+    private static final int ADAPTIVE = TraitDictionary.intern("adaptive");
+    private static final int RESILIENT = TraitDictionary.intern("resilient");
+
+    public PlanetGenerator() {
+        this(SeedTree.fromEntropy());
+    }
+
+    public PlanetGenerator(long seed) {
+        this(new SeedTree(seed));
+    }
+
+    /**
+     * World driven by the given seed tree: planet/name/spawn choices use its
+     * "setup" stream, generation N uses the streams under generation(N).
+     */
+    public PlanetGenerator(SeedTree seeds) {
+        this(seeds, FossilRecord.defaultRecord());
+    }
+
+    /**
+     * World writing its fossils to the given record; worlds that run side by
+     * side each need their own.
+     */
+    public PlanetGenerator(SeedTree seeds, FossilRecord fossils) {
+        this.seeds = seeds;
+        this.fossils = fossils;
+        this.setupRandom = seeds.child("setup").stream();
+        this.placementRandom = seeds.child("placement").stream();
+        this.evolutionManager = new CreatureEvolutionManager(seeds.child("evolution").stream());
+    }
+
+    public long getSeed() {
+        return seeds.seed();
+    }
+
+    public FossilRecord getFossilRecord() {
+        return fossils;
+    }
+
+    public String getCurrentPlanetName() {
+        return currentPlanetName;
+    }
+
+    /**
+     * Live creatures of this world (read-only view).
+     */
+    public List<AICreature> getCreatures() {
+        return Collections.unmodifiableList(playerCreatures);
+    }
+
+    /** Creatures that died (crisis, duel or replaced by offspring) since this world was created. */
+    public int getExtinctionCount() {
+        return extinctions;
+    }
+
+    /** Positions of this world's creatures; null until the planet is generated. */
+    public SpatialGrid getSpatialGrid() {
+        return grid;
+    }
+
+    public int getGenerationsRun() {
+        return generationsRun;
+    }
+
+    public void setNumCompetitors(int numCompetitors) {
+        this.numCompetitors = numCompetitors;
+    }
+
+    public void setCompetitionEnabled(boolean competitionEnabled) {
+        this.competitionEnabled = competitionEnabled;
+    }
+
+    /**
+     * Pairing scheme for the competition round. Modes other than all-pairs
+     * keep the round roughly linear in the number of creatures.
+     */
+    public void setTournamentScheduler(TournamentScheduler tournament) {
+        this.tournament = tournament;
+    }
+
+    public TournamentScheduler getTournamentScheduler() {
+        return tournament;
+    }
+
+    public void setRankingReportSize(int rankingReportSize) {
+        this.rankingReportSize = rankingReportSize;
+    }
+
+    /**
+     * Append every duel to {@code duelLog} (null stops logging). The caller
+     * owns the log and closes it.
+     */
+    public void setDuelLog(DuelLog duelLog) {
+        this.duelLog = duelLog;
+    }
+
+    public DuelLog getDuelLog() {
+        return duelLog;
+    }
+
+    public LineageRatings getRatings() {
+        return ratings;
+    }
+
+    /**
+     * Write a checkpoint to {@link #checkpointFile()} after every
+     * {@code every}th generation of a run; 0 (the default) never does.
+     */
+    public void setCheckpointEvery(int every) {
+        this.checkpointEvery = Math.max(0, every);
+    }
+
+    /** Where this world's checkpoints go: {@link Checkpoint#FILE_NAME} next to the fossils. */
+    public Path checkpointFile() {
+        return checkpointFile(fossils);
+    }
+
+    public static Path checkpointFile(FossilRecord fossils) {
+        return fossils.getDirectory().toPath().resolve(Checkpoint.FILE_NAME);
+    }
+
+    /**
+     * Write everything a run needs to continue to {@code file} (see
+     * {@link Checkpoint}): seed and run position, planet, trait names, the
+     * population store's columns, the creatures
+     * in list order, the spatial grid and the lineage ratings. Configuration
+     * (tournament, reproduction, event sink, duel log) is not included.
+     * Call between generations.
+     */
+    public void saveCheckpoint(Path file) throws IOException {
+        if (checkpointBuffer == null) checkpointBuffer = new Checkpoint.Out();
+        Checkpoint.Out out = checkpointBuffer.begin();
+        out.putLong(seeds.seed()).putInt(generationsRun).putInt(runGeneration).putInt(runLength);
+        out.putInt(extinctions).putInt(numCompetitors);
+        out.putString(currentPlanetName).putString(currentPlanetType).putString(currentPlanetAtmosphere);
+        // trait ids are only meaningful with the names they stood for in this run
+        int traits = TraitDictionary.size();
+        out.putInt(traits);
+        for (int id = 0; id < traits; id++) out.putString(TraitDictionary.name(id));
+        population.writeTo(out);
+        playerCreatures.writeTo(out);
+        out.putInt(grid == null ? 0 : 1);
+        if (grid != null) grid.writeTo(out);
+        ratings.writeTo(out);
+        out.writeTo(file);
+    }
+
+    /**
+     * World in the state {@link #saveCheckpoint} saved to {@code file},
+     * writing its fossils to {@code fossils}; continue its run with
+     * {@link #resumeEvolutionSimulation()}. Configure it like a new world.
+     */
+    public static PlanetGenerator restoreCheckpoint(Path file, FossilRecord fossils) throws IOException {
+        Checkpoint.In in = Checkpoint.In.open(file);
+        try {
+            long seed = in.getLong();
+            int generationsRun = in.getInt(), runGeneration = in.getInt(), runLength = in.getInt();
+            int extinctions = in.getInt(), numCompetitors = in.getInt();
+            String name = in.getString(), type = in.getString(), atmosphere = in.getString();
+            // interned before the world's classes intern theirs, so ids usually come out as
+            // they were in the checkpointed run and the mapping below is the identity
+            int[] traitIds = new int[in.getLength(4)];
+            for (int id = 0; id < traitIds.length; id++) traitIds[id] = TraitDictionary.intern(in.getString());
+
+            PlanetGenerator world = new PlanetGenerator(new SeedTree(seed), fossils);
+            world.generationsRun = generationsRun;
+            world.runGeneration = runGeneration;
+            world.runLength = runLength;
+            world.extinctions = extinctions;
+            world.numCompetitors = numCompetitors;
+            world.currentPlanetName = name;
+            world.setPlanetEnvironment(type, atmosphere);
+            world.population.readFrom(in);
+            world.playerCreatures.readFrom(in, traitIds);
+            if (in.getInt() != 0) world.grid = SpatialGrid.readFrom(world.population, in);
+            world.ratings = LineageRatings.readFrom(in);
+            // list order is insertion order, so equal scores rank as they did
+            for (AICreature c : world.playerCreatures) world.leaderboard.add(c);
+            return world;
+        } catch (RuntimeException e) {
+            throw new IOException(file + " is not a valid checkpoint: " + e, e);
+        }
+    }
+
+    /**
+     * Run each tournament round's duels on the fork-join pool (default) or
+     * one by one; both give the same results for the same seed.
+     */
+    public void setParallelDuels(boolean parallelDuels) {
+        this.parallelDuels = parallelDuels;
+    }
+
+    /**
+     * Breed offspring into the population every generation with
+     * {@code reproduction}, or not at all (null, the default).
+     */
+    public void setReproduction(ReproductionEngine reproduction) {
+        this.reproduction = reproduction;
+    }
+
+    public ReproductionEngine getReproduction() {
+        return reproduction;
+    }
+
+    /**
+     * Update the population's partitions on the fork-join pool (default) or
+     * one by one; both give the same results for the same seed.
+     */
+    public void setParallelEvolution(boolean parallelEvolution) {
+        evolutionManager.setParallel(parallelEvolution);
+    }
+
+    /**
+     * Route this world's reports (setup, mutations, crises, duels, ...) to
+     * {@code events}. The public simulation methods flush it before returning.
+     */
+    public void setEventSink(SimulationEventSink events) {
+        this.events = events;
+        this.evolutionManager.setEventSink(events);
+    }
+
+    public SimulationEventSink getEventSink() {
+        return events;
+    }
+
+    private void report(String message) {
+        if (events.isEnabled()) events.accept(new SimulationEvent.Message(message));
+    }
 
     private String generateCreativePlanetName() {
         String[] prefixes = {"Zyra", "Vega", "Orion", "Nova", "Astra", "Lumen", "Celes", "Pyra", "Cryo", "Terra"};
         String[] suffixes = {"lon", "thar", "dora", "nix", "mir", "vex", "tune", "lith", "dane", "phos"};
-        Random random = new Random();
+        RandomGenerator random = setupRandom;
         String prefix = prefixes[random.nextInt(prefixes.length)];
         String suffix = suffixes[random.nextInt(suffixes.length)];
         int number = 100 + random.nextInt(900); // 100-999
@@ -30,43 +303,37 @@ public class PlanetGenerator {
     }
 
     private String[] generateAttributes(String planetType, String atmosphere) {
-        List<String> attributes = new ArrayList<>();
-
-        // Map planet types to a richer set of required/typical traits
-        Map<String, String[]> required = new HashMap<>();
-        required.put("Lava", new String[]{"Heat Resistance", "Fire Breath", "Magma Camouflage", "Thermal Vision"});
-        required.put("Ice", new String[]{"Cold Resistance", "Ice Camouflage", "Antifreeze Blood", "Blubber"});
-        required.put("Desert", new String[]{"Water Conservation", "Sand Burrower", "Heat Tolerance", "Night Vision"});
-        required.put("Ocean", new String[]{"Swimming", "Gills", "Salt Tolerance", "Pressure Resistance"});
-        required.put("Forest", new String[]{"Climbing", "Leaf Camouflage", "Camouflage Scent", "Nocturnal"});
-        // New world types with larger requirement sets
-        required.put("Swamp", new String[]{"Mire Grip", "Toxin Metabolism", "Buoyant", "Camouflage Algae", "Amphibious Respiration"});
-        required.put("Mountain", new String[]{"Cliff Climbing", "Thick Fur", "High Altitude Lung", "Rock Camouflage", "Low Oxygen Tolerance"});
-
-        String[] base = required.get(planetType);
-        if (base != null) {
-            for (String b : base) attributes.add(b);
-        }
-        // Add attributes based on atmosphere
-        if (atmosphere.contains("Oxygen")) {
-            attributes.add("High Endurance");
-        } else if (atmosphere.contains("Nitrogen")) {
-            attributes.add("Nitrogen Tolerance");
-        } else if (atmosphere.contains("Methane")) {
-            attributes.add("Methane Breather");
-        } else if (atmosphere.contains("Carbon monoxide")) {
-            attributes.add("Toxic Resistance");
-        }
-        return attributes.toArray(new String[0]);
+        // planet-type and atmosphere trait tables live in the compiled profile
+        return EnvironmentProfile.of(planetType, atmosphere).newBaselineAttributes();
     }
 
     private AICreature createAICreature(String[] attributes) {
-        return new AICreature(attributes);
+        return new AICreature(population, attributes);
+    }
+
+    // takes creature out of everything but the list, where it is only marked
+    // dead until replaceCasualties compacts it away
+    private void removeFromPopulation(AICreature creature) {
+        playerCreatures.markDead(creature);
+        leaderboard.remove(creature);
+        ratings.remove(creature.getLineageId());
+        if (grid != null) grid.remove(creature);
+        population.release(creature);
     }
 
     private void addCreatureToPlayerList(AICreature creature) {
+        if (grid != null) {
+            creature.setPosition(placementRandom.nextFloat() * PLANET_EXTENT, placementRandom.nextFloat() * PLANET_EXTENT);
+        }
+        enlist(creature);
+    }
+
+    // add a creature that already has its position
+    private void enlist(AICreature creature) {
         playerCreatures.add(creature);
-        System.out.println("AI Creature added to player list: " + creature);
+        leaderboard.add(creature);
+        if (grid != null) grid.add(creature);
+        if (events.isEnabled()) events.accept(new SimulationEvent.SpawnEvent(SimulationEvent.Subject.of(creature)));
     }
 
     private void updateCreatures() {
@@ -75,15 +342,16 @@ public class PlanetGenerator {
     }
 
     private void createPlanetWithType(String type, String atmosphere, double distanceFromStar) {
-        System.out.println("Creating planet: Type=" + type + ", Atmosphere=" + atmosphere + ", Distance=" + distanceFromStar);
+        report("Creating planet: Type=" + type + ", Atmosphere=" + atmosphere + ", Distance=" + distanceFromStar);
     }
 
     private void addPlanetToDatabase(Planet planet) {
-        System.out.println("Adding planet to database: " + planet.getName());
+        report("Adding planet to database: " + planet.getName());
     }
 
     public void generatePlanetAndCreature() {
-        Random random = new Random();
+        report("World seed: " + seeds.seed() + " (replay with --seed " + seeds.seed() + ")");
+        RandomGenerator random = setupRandom;
         int typeIndex = random.nextInt(planetTypes.length);
         String type = planetTypes[typeIndex];
         int atmosphereIndex = random.nextInt(atmosphereList.length);
@@ -91,253 +359,357 @@ public class PlanetGenerator {
         double distanceFromStar = random.nextDouble();
         
         // Store planet type and atmosphere for asset loading
-        this.currentPlanetType = type;
-        this.currentPlanetAtmosphere = atmosphere;
+        setPlanetEnvironment(type, atmosphere);
         
         createPlanetWithType(type, atmosphere, distanceFromStar);
         String creativeName = generateCreativePlanetName();
         this.currentPlanetName = creativeName;
         Planet planetName = new Planet(creativeName);
         addPlanetToDatabase(planetName);
-        // Generate N AI creatures (competitors) based on planet
+        // Generate N AI creatures (competitors) based on planet, scattered over its surface
+        grid = SpatialGrid.forPopulation(population, PLANET_EXTENT, numCompetitors);
         for (int i = 0; i < numCompetitors; i++) {
             String spawnType = (i == 0) ? type : planetTypes[(typeIndex + i) % planetTypes.length];
             String spawnAtmo = atmosphereList[random.nextInt(atmosphereList.length)];
             String[] attributes = generateAttributes(spawnType, spawnAtmo);
             AICreature aiCreature = createAICreature(attributes);
             addCreatureToPlayerList(aiCreature);
-            System.out.println("Spawned competitor #" + (i+1) + ": Type=" + spawnType + ", Atmosphere=" + spawnAtmo + " -> " + aiCreature);
+            if (events.isEnabled()) report("Spawned competitor #" + (i+1) + ": Type=" + spawnType + ", Atmosphere=" + spawnAtmo + " -> " + aiCreature);
         }
         updateCreatures();
+        events.flush();
     }
 
     /**
      * Run multiple evolution cycles and log only attribute changes and survivability.
+     *
+     * A generation runs its compute stages in order on the calling thread:
+     * planetary events, evolution, movement, competition and, when a
+     * {@link #setReproduction reproduction engine} is set, breeding. Reporting and
+     * fossil writing are separate stages behind them: with an asynchronous
+     * event sink and fossil record ({@link FossilRecord#setAsync}) they run
+     * on their own threads, fed through bounded queues, and overlap with the
+     * next generation's compute. With {@link #setCheckpointEvery} a checkpoint
+     * is written after every Nth generation.
      */
     public void runEvolutionSimulation(int cycles) {
         if (playerCreatures.isEmpty()) return;
+        runGeneration = 0;
+        runLength = cycles;
+        runGenerations();
+    }
 
-        // Determine required planet traits (first two entries from generateAttributes)
-        String[] baseline = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
-        Set<String> requiredTraits = new HashSet<>();
-        if (baseline.length >= 2) {
-            requiredTraits.add(baseline[0]);
-            requiredTraits.add(baseline[1]);
-        }
-
-        double crisisChance = 0.15; // 15% chance of a PlanetCrisis each generation
-        for (int gen = 1; gen <= cycles; gen++) {
-            boolean envChanged = false;
-            // random PlanetCrisis can occur at any generation
-                if (rand.nextDouble() < crisisChance) {
-                String[] env = EventEngine.triggerCrisis(rand, this.currentPlanetType, this.currentPlanetAtmosphere);
-                this.setPlanetEnvironment(env[0], env[1]);
-                envChanged = true;
-                // recompute required traits after crisis
-                baseline = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
-                requiredTraits.clear();
-                if (baseline.length >= 2) {
-                    requiredTraits.add(baseline[0]);
-                    requiredTraits.add(baseline[1]);
-                }
-
-                // immediately recharge adaptive charges because environment just changed
-                for (AICreature c : playerCreatures) {
-                    c.rechargeAdaptive();
-                }
+    /**
+     * Run the rest of the run a {@link #restoreCheckpoint restored} world was
+     * checkpointed in: the generations after the checkpoint, with the same
+     * seeds and the same mid-run orbit shift as if it had never stopped.
+     */
+    public void resumeEvolutionSimulation() {
+        if (playerCreatures.isEmpty()) return;
+        report("Resuming " + currentPlanetName + " (seed " + seeds.seed() + ") at generation " + (runGeneration + 1) + " of " + runLength);
+        runGenerations();
+    }
 
-                // apply immediate fitness penalties for missing vital traits
-                List<AICreature> dead = new ArrayList<>();
-                for (AICreature c : playerCreatures) {
-                    Set<String> afterSet = new HashSet<>(Arrays.asList(c.getAttributes()));
-                    Set<String> missing = new HashSet<>(requiredTraits);
-                    missing.removeAll(afterSet);
-                    if (!missing.isEmpty()) {
-                        double baseDmg = 30.0 * missing.size();
-                        int usedAdaptive = 0;
-                        if (afterSet.contains("adaptive")) {
-                            // consume up to min(2, missing.size()) charges
-                            usedAdaptive = c.useAdaptive(Math.min(2, missing.size()));
-                        }
-                        // each used adaptive charge halves the damage
-                        double dmg = baseDmg * Math.pow(0.5, usedAdaptive);
-                        if (afterSet.contains("resilient")) dmg *= 0.5;
-                        int idmg = (int)Math.ceil(dmg);
-                        c.reduceHealth(idmg);
-                        System.out.println("CRISIS DAMAGE applied " + idmg + " to " + c + " missing=" + missing + " adaptiveUsed=" + usedAdaptive);
-                        if (!c.isAlive()) {
-                            dead.add(c);
-                        }
-                    }
-                }
-                if (!dead.isEmpty()) {
-                    for (AICreature d : dead) {
-                        // save fossil before removing
-                        FossilRecord.saveFossil(d, this.currentPlanetName, this.currentPlanetType, this.currentPlanetAtmosphere, "PlanetCrisis");
-                        playerCreatures.remove(d);
-                        System.out.println("EXTINCTION: " + d + " removed from population (fossil saved)");
-                        // respawn a new creature to start a new lineage
-                        String[] newAttrs = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
-                        AICreature newborn = createAICreature(newAttrs);
-                        addCreatureToPlayerList(newborn);
-                        System.out.println("RESPAWN: New lineage started: " + newborn);
-                    }
-                }
-            }
+    private void runGenerations() {
+        while (runGeneration < runLength) {
+            int gen = ++runGeneration;
+            // streams of this generation; numbered across calls so repeated runs never reuse one
+            SeedTree generationSeeds = seeds.generation(++generationsRun);
+            // respawns draw their positions from the generation's own stream, so a
+            // checkpoint between generations leaves no random state to carry over
+            placementRandom = generationSeeds.child("placement").stream();
+            boolean envChanged = crisisStage(generationSeeds.child("events").stream());
             // mid-simulation environmental event: change planet at halfway point
-            if (gen == (cycles / 2) + 1) {
+            if (gen == (runLength / 2) + 1) {
                 // example: orbit shift -> Desert to Ice, Ocean to Desert, Lava to Ocean
                 simulateOrbitShift();
                 envChanged = true;
-                // recompute required traits after environment change
-                baseline = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
-                requiredTraits.clear();
-                if (baseline.length >= 2) {
-                    requiredTraits.add(baseline[0]);
-                    requiredTraits.add(baseline[1]);
-                }
             }
+            evolutionStage(gen, generationSeeds, envChanged);
 
-            // snapshot before entire generation
-            List<String[]> beforeAll = new ArrayList<>();
-            for (AICreature c : playerCreatures) beforeAll.add(c.getAttributes().clone());
-
-            // perform one environment-aware update for the generation
-            evolutionManager.updateCreatures(playerCreatures, this.currentPlanetType, this.currentPlanetAtmosphere);
-
-            // apply regeneration or reset stability based on whether environment changed this generation
-            if (envChanged) {
-                for (AICreature c : playerCreatures) c.resetStability();
-            } else {
-                for (AICreature c : playerCreatures) c.incrementStableAndMaybeHeal();
+            // creatures roam; the grid only relinks those that changed cell
+            if (grid != null) {
+                population.moveAll(generationSeeds.child("movement").stream(), PLANET_EXTENT);
+                grid.update();
             }
 
-            // compare and report per-creature changes
-            for (int i = 0; i < playerCreatures.size(); i++) {
-                AICreature creature = playerCreatures.get(i);
-                List<String> before = Arrays.asList(beforeAll.get(i));
-                List<String> after = Arrays.asList(creature.getAttributes());
+            // Interspecies competition round (if at least two creatures)
+            if (competitionEnabled && playerCreatures.size() >= 2) competitionStage(gen, generationSeeds);
 
-                Set<String> beforeSet = new HashSet<>(before);
-                Set<String> afterSet = new HashSet<>(after);
+            if (reproduction != null && playerCreatures.size() >= 2) reproductionStage(generationSeeds);
 
-                Set<String> added = new HashSet<>(afterSet);
-                added.removeAll(beforeSet);
+            if (checkpointEvery > 0 && gen % checkpointEvery == 0) checkpointStage();
+        }
+        events.flush();
+    }
 
-                Set<String> removed = new HashSet<>(beforeSet);
-                removed.removeAll(afterSet);
+    // fossils and duels up to here go to disk first, so the checkpoint never runs ahead of them
+    private void checkpointStage() {
+        fossils.flush();
+        if (duelLog != null) duelLog.force();
+        try {
+            saveCheckpoint(checkpointFile());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to write checkpoint: " + e.getMessage());
+        }
+    }
 
-                boolean printed = false;
-                if (!added.isEmpty() || !removed.isEmpty()) {
-                    System.out.println("Gen " + gen + ": Changes for " + creature + "\n  +" + added + "\n  -" + removed);
-                    printed = true;
-                }
+    // a random PlanetCrisis can occur at any generation; returns whether it did
+    private boolean crisisStage(SplittableRandom eventRandom) {
+        if (eventRandom.nextDouble() >= CRISIS_CHANCE) return false;
+        String[] env = EventEngine.chooseCrisis(eventRandom, this.currentPlanetType, this.currentPlanetAtmosphere);
+        if (events.isEnabled()) events.accept(new SimulationEvent.CrisisEvent(env[0], env[1]));
+        this.setPlanetEnvironment(env[0], env[1]);
+        TraitSet crisisRequired = environment.requiredTraits();
+
+        // immediately recharge adaptive charges because environment just changed
+        population.rechargeAdaptiveAll();
+
+        // apply immediate fitness penalties for missing vital traits: gather
+        // per-slot inputs from the trait bitsets, then sweep the columns
+        int slots = population.slotCapacity();
+        int[] missingBySlot = new int[slots];
+        byte[] flagsBySlot = new byte[slots];
+        for (AICreature c : playerCreatures) {
+            TraitSet afterSet = c.getTraits();
+            missingBySlot[c.slot()] = afterSet.countMissing(crisisRequired);
+            byte flags = 0;
+            if (afterSet.contains(ADAPTIVE)) flags |= PopulationStore.FLAG_ADAPTIVE;
+            if (afterSet.contains(RESILIENT)) flags |= PopulationStore.FLAG_RESILIENT;
+            flagsBySlot[c.slot()] = flags;
+        }
+        int[] damageBySlot = new int[slots];
+        int[] adaptiveUsedBySlot = new int[slots];
+        population.applyCrisisDamage(missingBySlot, flagsBySlot, damageBySlot, adaptiveUsedBySlot);
 
-                // survivability: check presence of required planet traits
-                Set<String> missing = new HashSet<>(requiredTraits);
-                missing.removeAll(afterSet);
-                if (!missing.isEmpty()) {
-                    if (afterSet.contains("adaptive")) {
-                        System.out.println("Gen " + gen + ": ADAPTIVE mitigated missing=" + missing + " for " + creature);
-                    } else {
-                        System.out.println("Gen " + gen + ": SURVIVABILITY WARNING for " + creature + " missing=" + missing);
-                    }
-                    printed = true;
+        List<AICreature> dead = new ArrayList<>();
+        for (AICreature c : playerCreatures) {
+            int idmg = damageBySlot[c.slot()];
+            if (missingBySlot[c.slot()] > 0) {
+                if (events.isEnabled()) {
+                    TraitSet missing = c.getTraits().missingFrom(crisisRequired);
+                    events.accept(new SimulationEvent.CrisisDamageEvent(SimulationEvent.Subject.of(c), idmg, missing, adaptiveUsedBySlot[c.slot()]));
                 }
-
-                if (!printed) {
-                    // keep console minimal
+                if (!c.isAlive()) {
+                    dead.add(c);
                 }
             }
+        }
+        replaceCasualties(dead, SimulationEvent.CAUSE_CRISIS, events.isEnabled());
+        return true;
+    }
 
-            // Interspecies competition round (if at least two creatures)
-            if (competitionEnabled && playerCreatures.size() >= 2) {
-                // compute initial scores and print ranking
-                List<AICreature> pool = new ArrayList<>(playerCreatures);
-                pool.sort((c1, c2) -> Integer.compare(computeCompetitionScore(c2, requiredTraits), computeCompetitionScore(c1, requiredTraits)));
-                System.out.println("Gen " + gen + ": Competition ranking:");
-                for (AICreature c : pool) {
-                    System.out.println("  " + c.getGeneticCode() + " -> score=" + computeCompetitionScore(c, requiredTraits));
+    // one environment-aware update, stability healing and the change report
+    private void evolutionStage(int gen, SeedTree generationSeeds, boolean envChanged) {
+        final TraitSet requiredTraits = environment.requiredTraits();
+
+        // journal the trait edits of the update (only needed for the change report)
+        boolean reporting = events.isEnabled();
+        ChangeJournal journal = population.journal();
+        if (reporting) journal.begin();
+
+        // perform one environment-aware update for the generation
+        evolutionManager.updatePopulation(population, playerCreatures, this.currentPlanetType, this.currentPlanetAtmosphere, generationSeeds);
+        journal.end();
+
+        // apply regeneration or reset stability based on whether environment changed this generation
+        if (envChanged) {
+            population.resetStabilityAll();
+        } else {
+            // heal +17 per cycle when stable
+            int[] healed = population.stabilizeAndHeal(3, 17);
+            if (reporting) {
+                for (int slot : healed) {
+                    AICreature c = population.handle(slot);
+                    events.accept(new SimulationEvent.RegenerationEvent(SimulationEvent.Subject.of(c), 17, c.getStableGenerations()));
                 }
+            }
+        }
 
-                // Run pairwise duels among the pool (each unique pair fights once)
-                List<AICreature> toRemove = new ArrayList<>();
-                for (int i = 0; i < pool.size(); i++) {
-                    for (int j = i + 1; j < pool.size(); j++) {
-                        AICreature a = pool.get(i);
-                        AICreature b = pool.get(j);
-                        if (!a.isAlive() || !b.isAlive()) continue; // skip dead
-                        CombatSystem.DuelResult res = CombatSystem.duel(a, b, rand);
-                        if (res.draw) {
-                            System.out.println(String.format("  Duel %d vs %d: DRAW — %s and %s both took damage (h=%d, h=%d)", i, j, a.getGeneticCode(), b.getGeneticCode(), a.getHealth(), b.getHealth()));
-                        } else {
-                            System.out.println(String.format("  Duel %d vs %d: winner lineage=%d damage=%d — healths: %d, %d", i, j, res.winner.getLineageId(), res.damageDealtToLoser, res.a.getHealth(), res.b.getHealth()));
-                        }
-
-                        if (!a.isAlive() && !toRemove.contains(a)) toRemove.add(a);
-                        if (!b.isAlive() && !toRemove.contains(b)) toRemove.add(b);
-                    }
+        // report per-creature changes; only journaled creatures can have any
+        TraitSet beforeTraits = new TraitSet();
+        for (int i = 0; reporting && i < playerCreatures.size(); i++) {
+            AICreature creature = playerCreatures.get(i);
+            int slot = creature.slot();
+
+            boolean printed = false;
+            if (journal.changed(slot)) {
+                beforeTraits.clear();
+                for (int t = 0, n = journal.beforeCount(slot); t < n; t++) beforeTraits.add(journal.beforeId(slot, t));
+                // edits that cancel out (or re-add a present trait) leave the set as it was
+                if (!beforeTraits.equals(creature.getTraits())) {
+                    reportTraitChange(gen, creature, journal);
+                    printed = true;
                 }
+            }
 
-                // Process deaths and respawn
-                for (AICreature dead : toRemove) {
-                    FossilRecord.saveFossil(dead, this.currentPlanetName, this.currentPlanetType, this.currentPlanetAtmosphere, "Competition_Duel");
-                    playerCreatures.remove(dead);
-                    System.out.println("EXTINCTION (duel): " + dead + " removed (fossil saved)");
-                    String[] newAttrs = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
-                    AICreature newborn = createAICreature(newAttrs);
-                    addCreatureToPlayerList(newborn);
-                    System.out.println("RESPAWN (duel): New lineage started: " + newborn);
-                }
+            // survivability: check presence of required planet traits
+            TraitSet traits = creature.getTraits();
+            if (!traits.containsAll(requiredTraits)) {
+                TraitSet missing = traits.missingFrom(requiredTraits);
+                events.accept(new SimulationEvent.SurvivabilityEvent(gen, SimulationEvent.Subject.of(creature), missing, traits.contains(ADAPTIVE)));
+                printed = true;
+            }
 
-                // After duels, heal the top-ranked survivor as reward
-                List<AICreature> survivors = new ArrayList<>(playerCreatures);
-                if (!survivors.isEmpty()) {
-                    survivors.sort((c1, c2) -> Integer.compare(computeCompetitionScore(c2, requiredTraits), computeCompetitionScore(c1, requiredTraits)));
-                    AICreature winner = survivors.get(0);
-                    int winnerScore = computeCompetitionScore(winner, requiredTraits);
-                    winner.heal(10 + Math.max(0, survivors.size()-1) * 2);
-                    System.out.println("  Winner after duels: " + winner + " (score=" + winnerScore + ")\n");
-                }
+            if (!printed) {
+                // keep console minimal
+            }
+        }
+    }
+
+    // rank, run the tournament, replace its casualties and reward the winner
+    private void competitionStage(int gen, SeedTree generationSeeds) {
+        boolean reporting = events.isEnabled();
+        // score the population on the leaderboard and report the top of it
+        batchScores = batchScorer.competitionScores(environment.requiredTraits(), batchScores);
+        leaderboard.refresh(batchScores);
+        // only modes that pair or report by rank need the pool sorted; the report reads the heap
+        List<AICreature> pool = new ArrayList<>(playerCreatures);
+        boolean ranked = tournament.getMode().usesRanking();
+        if (ranked) CombatSystem.sortByScoreDescending(pool, leaderboard::score);
+        if (reporting) {
+            List<AICreature> top = leaderboard.top(rankingReportSize);
+            String[] codes = new String[top.size()];
+            int[] scores = new int[top.size()];
+            for (int r = 0; r < codes.length; r++) {
+                codes[r] = top.get(r).getGeneticCode();
+                scores[r] = leaderboard.score(top.get(r));
+            }
+            events.accept(new SimulationEvent.RankingEvent(gen, codes, scores, pool.size()));
+        }
+
+        // Run the duels the tournament schedules, round by round; a round's
+        // duels are disjoint and run in parallel, deaths are handled after it
+        SeedTree duelSeeds = generationSeeds.child("duels");
+        TournamentScheduler.Tournament bracket = tournament.begin(pool, grid, ratings, generationSeeds.child("pairings").stream());
+        IntPredicate alive = idx -> pool.get(idx).isAlive();
+        int[] round;
+        for (int r = 0; (round = bracket.nextRound(alive)) != null; r++) {
+            CombatSystem.DuelResult[] results = CombatSystem.duelRound(pool, round, duelSeeds.round(r), parallelDuels);
+            List<AICreature> toRemove = new ArrayList<>();
+            for (int p = 0; p < results.length; p++) {
+                CombatSystem.DuelResult res = results[p];
+                if (res == null) continue; // skipped: one side was dead
+                int i = round[2 * p], j = round[2 * p + 1];
+                bracket.recordResult(i, j, res.draw ? TournamentScheduler.DRAW : (res.winner == res.a ? i : j));
+                if (reporting) events.accept(ranked ? new SimulationEvent.DuelEvent(i, j, res) : new SimulationEvent.DuelEvent(-1, -1, res));
+                ratings.record(res);
+                if (duelLog != null) duelLog.append(generationsRun, r, res);
+
+                if (!res.a.isAlive()) toRemove.add(res.a); else leaderboard.update(res.a);
+                if (!res.b.isAlive()) toRemove.add(res.b); else leaderboard.update(res.b);
             }
+            replaceCasualties(toRemove, SimulationEvent.CAUSE_DUEL, reporting);
+        }
+
+        // After duels, heal the top-ranked survivor as reward
+        AICreature winner = leaderboard.top();
+        if (winner != null) {
+            int winnerScore = leaderboard.score(winner);
+            winner.heal(10 + Math.max(0, playerCreatures.size()-1) * 2);
+            leaderboard.update(winner);
+            if (reporting) events.accept(new SimulationEvent.DuelWinnerEvent(SimulationEvent.Subject.of(winner), winnerScore));
         }
     }
 
-    private int computeCompetitionScore(AICreature c, Set<String> requiredTraits) {
-        int score = c.getHealth();
-        Set<String> attrs = new HashSet<>(Arrays.asList(c.getAttributes()));
-        int matches = 0;
-        for (String t : requiredTraits) if (attrs.contains(t)) matches++;
-        score += matches * 50; // big advantage for matching required traits
-        score += c.getMutationCount() * 2; // small benefit for evolvability
-        if (attrs.contains("agile") || attrs.contains("quick-learner")) score += 10;
-        if (attrs.contains("strong-sense")) score += 10;
-        return score;
+    // steady-state breeding: the weakest creatures make way for offspring of the strong
+    private void reproductionStage(SeedTree generationSeeds) {
+        boolean reporting = events.isEnabled();
+        batchScores = batchScorer.competitionScores(environment.requiredTraits(), batchScores);
+        ReproductionEngine.Brood brood = reproduction.breed(playerCreatures, batchScores, generationSeeds.child("reproduction"));
+        playerCreatures.ensureCapacity(brood.size());
+        for (int i = 0; i < brood.size(); i++) {
+            AICreature victim = brood.victim(i);
+            fossils.save(victim, this.currentPlanetName, this.currentPlanetType, this.currentPlanetAtmosphere, SimulationEvent.CAUSE_REPLACED);
+            if (reporting) events.accept(new SimulationEvent.ExtinctionEvent(SimulationEvent.Subject.of(victim), SimulationEvent.CAUSE_REPLACED));
+            removeFromPopulation(victim);
+            extinctions++;
+            // hatched into the victim's slot, next to its first parent
+            AICreature child = brood.hatch(i, population);
+            child.setPosition(PopulationStore.wrap(child.getX(), PLANET_EXTENT), PopulationStore.wrap(child.getY(), PLANET_EXTENT));
+            enlist(child);
+            if (reporting) events.accept(new SimulationEvent.BirthEvent(SimulationEvent.Subject.of(child), brood.parentLineageA(i), brood.parentLineageB(i)));
+        }
+        playerCreatures.compact();
+    }
+
+    // gained and lost traits of a journaled creature, as sets of names
+    private void reportTraitChange(int gen, AICreature creature, ChangeJournal journal) {
+        int slot = creature.slot();
+        String[] before = new String[journal.beforeCount(slot)];
+        for (int t = 0; t < before.length; t++) before[t] = TraitDictionary.name(journal.beforeId(slot, t));
+
+        Set<String> beforeSet = new HashSet<>(Arrays.asList(before));
+        Set<String> afterSet = new HashSet<>(Arrays.asList(creature.getAttributes()));
+
+        Set<String> added = new HashSet<>(afterSet);
+        added.removeAll(beforeSet);
+
+        Set<String> removed = new HashSet<>(beforeSet);
+        removed.removeAll(afterSet);
+
+        events.accept(new SimulationEvent.TraitChangeEvent(gen, SimulationEvent.Subject.of(creature), added, removed));
+    }
+
+    // fossilize creatures that died of {@code cause} and respawn one for each;
+    // each newborn takes its casualty's store slot and, once the dead are
+    // compacted away, the newborns follow the survivors in death order
+    private void replaceCasualties(List<AICreature> dead, String cause, boolean reporting) {
+        if (dead.isEmpty()) return;
+        playerCreatures.ensureCapacity(dead.size());
+        for (AICreature c : dead) {
+            // save fossil before removing
+            fossils.save(c, this.currentPlanetName, this.currentPlanetType, this.currentPlanetAtmosphere, cause);
+            if (reporting) events.accept(new SimulationEvent.ExtinctionEvent(SimulationEvent.Subject.of(c), cause));
+            removeFromPopulation(c);
+            extinctions++;
+            // respawn a new creature to start a new lineage
+            String[] newAttrs = generateAttributes(this.currentPlanetType, this.currentPlanetAtmosphere);
+            AICreature newborn = createAICreature(newAttrs);
+            addCreatureToPlayerList(newborn);
+            if (reporting) events.accept(new SimulationEvent.RespawnEvent(SimulationEvent.Subject.of(newborn), cause));
+        }
+        playerCreatures.compact();
+    }
+
+    private int competitionScore(AICreature c) {
+        return computeCompetitionScore(c, environment.requiredTraits());
+    }
+
+    // per-creature form of BatchScorer.competitionScores
+    static int computeCompetitionScore(AICreature c, TraitSet requiredTraits) {
+        TraitSet attrs = c.getTraits();
+        return BatchScorer.competitionScore(c.getHealth(), attrs.countCommon(requiredTraits),
+                c.getMutationCount(), BatchScorer.competitionBonus(attrs));
     }
 
     private void simulateOrbitShift() {
-        System.out.println("-- ORBIT SHIFT EVENT: Planet environment is changing --");
         String prevType = this.currentPlanetType;
         String prevAtmo = this.currentPlanetAtmosphere;
         // small deterministic mapping for example
         switch (prevType) {
-            case "Desert": this.currentPlanetType = "Ice"; this.currentPlanetAtmosphere = "Nitrogen"; break;
-            case "Ocean": this.currentPlanetType = "Desert"; this.currentPlanetAtmosphere = "Methane"; break;
-            case "Lava": this.currentPlanetType = "Ocean"; this.currentPlanetAtmosphere = "Carbon monoxide"; break;
-            case "Ice": this.currentPlanetType = "Forest"; this.currentPlanetAtmosphere = "Oxygen-rich"; break;
-            case "Forest": this.currentPlanetType = "Desert"; this.currentPlanetAtmosphere = "Nitrogen"; break;
-            default: this.currentPlanetType = "Forest"; this.currentPlanetAtmosphere = "Oxygen-rich"; break;
+            case "Desert": setPlanetEnvironment("Ice", "Nitrogen"); break;
+            case "Ocean": setPlanetEnvironment("Desert", "Methane"); break;
+            case "Lava": setPlanetEnvironment("Ocean", "Carbon monoxide"); break;
+            case "Ice": setPlanetEnvironment("Forest", "Oxygen-rich"); break;
+            case "Forest": setPlanetEnvironment("Desert", "Nitrogen"); break;
+            default: setPlanetEnvironment("Forest", "Oxygen-rich"); break;
         }
-        System.out.println("Planet changed: " + prevType + " (" + prevAtmo + ") -> " + this.currentPlanetType + " (" + this.currentPlanetAtmosphere + ")");
+        if (events.isEnabled()) events.accept(new SimulationEvent.EnvironmentShiftEvent(prevType, prevAtmo, this.currentPlanetType, this.currentPlanetAtmosphere));
         // immediate recharge for adaptive trait after a major environmental shift
-        for (AICreature c : playerCreatures) {
-            c.rechargeAdaptive();
-        }
+        population.rechargeAdaptiveAll();
     }
 
     public void setPlanetEnvironment(String type, String atmosphere) {
         this.currentPlanetType = type;
         this.currentPlanetAtmosphere = atmosphere;
+        this.environment = EnvironmentProfile.of(type, atmosphere);
+        // required traits changed, so every competition score did
+        leaderboard.rescoreAll(this::competitionScore);
+    }
+
+    public EnvironmentProfile getEnvironment() {
+        return this.environment;
     }
 
     public String getCurrentPlanetType() {
@@ -443,18 +815,67 @@ public class PlanetGenerator {
     }
 
     public static void main(String[] args) {
-        PlanetGenerator generator = new PlanetGenerator();
+        // --resume continues the run saved in the last checkpoint, before anything else interns traits
+        PlanetGenerator generator = null;
+        boolean resumed = false;
+        for (String a : args) {
+            if (!a.equals("--resume")) continue;
+            Path checkpoint = checkpointFile(FossilRecord.defaultRecord());
+            try {
+                generator = restoreCheckpoint(checkpoint, FossilRecord.defaultRecord());
+                resumed = true;
+            } catch (IOException e) {
+                System.out.println("Could not resume from " + checkpoint + " (" + e.getMessage() + "), starting a new world");
+            }
+        }
+        // --seed N replays a previous run; without it a fresh seed is drawn and printed
+        for (int i = 0; generator == null && i + 1 < args.length; i++) {
+            if (args[i].equals("--seed")) {
+                try { generator = new PlanetGenerator(Long.parseLong(args[i+1])); } catch (Exception e) {}
+            }
+        }
+        if (generator == null) generator = new PlanetGenerator();
+        // reports are written by a background thread unless --events sync|off
+        String eventMode = "async";
+        long sampleEvery = 1;
         // parse CLI args
         int generations = 10;
+        TournamentScheduler.Mode tournamentMode = TournamentScheduler.Mode.ALL_PAIRS;
+        int matchesPerCreature = 0;
+        String combatRules = null;
+        String duelLogDir = null;
+        boolean syncFossils = false;
+        String reproductionMode = null;
+        double replacementRate = ReproductionEngine.DEFAULT_REPLACEMENT_RATE;
         for (int i = 0; i < args.length; i++) {
             String a = args[i];
             if (a.equals("--no-competition")) generator.competitionEnabled = false;
+            if (a.equals("--sequential-duels")) generator.parallelDuels = false;
+            if (a.equals("--sequential-evolution")) generator.setParallelEvolution(false);
+            if (a.equals("--sync-fossils")) syncFossils = true;
             if (a.equals("--competitors") && i+1 < args.length) {
                 try { generator.numCompetitors = Integer.parseInt(args[i+1]); } catch (Exception e) {}
             }
+            if (a.equals("--checkpoint-every") && i+1 < args.length) {
+                try { generator.setCheckpointEvery(Integer.parseInt(args[i+1])); } catch (Exception e) {}
+            }
             if (a.equals("--generations") && i+1 < args.length) {
                 try { generations = Integer.parseInt(args[i+1]); } catch (Exception e) {}
             }
+            if (a.equals("--events") && i+1 < args.length) eventMode = args[i+1];
+            if (a.equals("--tournament") && i+1 < args.length) tournamentMode = TournamentScheduler.Mode.parse(args[i+1]);
+            if (a.equals("--combat-rules") && i+1 < args.length) combatRules = args[i+1];
+            if (a.equals("--duel-log") && i+1 < args.length) duelLogDir = args[i+1];
+            if (a.equals("--reproduction") && i+1 < args.length) reproductionMode = args[i+1];
+            if (a.equals("--replacement-rate") && i+1 < args.length) {
+                try { replacementRate = Double.parseDouble(args[i+1]); } catch (Exception e) {}
+            }
+            if (a.equals("--matches-per-creature") && i+1 < args.length) {
+                try { matchesPerCreature = Integer.parseInt(args[i+1]); } catch (Exception e) {}
+            }
+            if (a.equals("--sample-events") && i+1 < args.length) {
+                try { sampleEvery = Long.parseLong(args[i+1]); } catch (Exception e) {}
+            }
             if (a.equals("--print-lineages")) {
                 // after run we will print lineages as well; mark with a system property in generator
                 // store in a small field by using reflection-like quick flag: reuse competitionEnabled false/true
@@ -462,9 +883,56 @@ public class PlanetGenerator {
             }
         }
 
-        generator.generatePlanetAndCreature();
-        // Run evolution simulation and then load assets
-        generator.runEvolutionSimulation(generations);
+        if (combatRules != null) {
+            try {
+                CombatSystem.setRules(CombatRules.load(Paths.get(combatRules)));
+            } catch (Exception e) {
+                System.out.println("Could not load combat rules from " + combatRules + " (" + e.getMessage() + "), using defaults");
+            }
+        }
+        generator.setTournamentScheduler(TournamentScheduler.of(tournamentMode,
+                matchesPerCreature > 0 ? matchesPerCreature : TournamentScheduler.defaultMatches(tournamentMode)));
+        if (reproductionMode != null) {
+            ReproductionEngine engine = new ReproductionEngine(ReproductionEngine.Selection.parse(reproductionMode));
+            engine.setReplacementRate(replacementRate);
+            generator.setReproduction(engine);
+        }
+        if (duelLogDir != null) {
+            try {
+                generator.setDuelLog(DuelLog.open(Paths.get(duelLogDir)));
+            } catch (IOException e) {
+                System.out.println("Could not open duel log in " + duelLogDir + " (" + e.getMessage() + "), duels are not logged");
+            }
+        }
+
+        SimulationEventSink events;
+        switch (eventMode) {
+            case "off": events = SimulationEventSink.NONE; break;
+            case "sync": events = TextEventSink.STDOUT; break;
+            default: events = new AsyncTextEventSink(System.out); break;
+        }
+        if (sampleEvery > 1) events = new SamplingEventSink(events, sampleEvery);
+        generator.setEventSink(events);
+
+        // fossils are written by a background stage unless --sync-fossils
+        if (!syncFossils) generator.getFossilRecord().setAsync(true);
+
+        // Run evolution simulation and then load assets; a resumed run keeps its own length
+        if (resumed) {
+            generator.resumeEvolutionSimulation();
+        } else {
+            generator.generatePlanetAndCreature();
+            generator.runEvolutionSimulation(generations);
+        }
+        generator.getFossilRecord().setAsync(false);
+        events.close();
+        if (generator.getDuelLog() != null) {
+            try {
+                generator.getDuelLog().close();
+            } catch (IOException e) {
+                System.out.println("Could not close duel log: " + e.getMessage());
+            }
+        }
         // Print Hall of Fame (fossil summaries)
         FossilRecord.printHallOfFame();
         // Optionally print lineage histories when requested via --print-lineages
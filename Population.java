@@ -0,0 +1,297 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * Population: the ordered list of living creatures of one PopulationStore,
+ * with constant-time lookup and removal.
+ *
+ * Every member's list index is kept by store slot, so {@link #indexOf},
+ * {@link #contains} and {@link #swapRemove} are O(1). Deaths during a
+ * generation are {@link #markDead marked} in a bitmap instead of removed:
+ * marked creatures stay at their index, so loops over the list and
+ * indices handed out earlier stay valid. {@link #compact()} then drops
+ * every marked creature in one order-preserving pass. Newborns can be
+ * appended while marks are pending; after compaction they follow the
+ * survivors in the order they were added. {@link #removeIf} and
+ * {@link #remove(int)} also preserve order; {@link #swapRemove} trades
+ * order for O(1). Not thread-safe.
+ */
+public final class Population extends AbstractList<AICreature> implements RandomAccess {
+    private final PopulationStore store;
+    private AICreature[] elements;
+    private int size;
+    private int[] indexBySlot = new int[0];   // -1 when the slot is not a member
+    private long[] dead = new long[1];        // by index: marked, awaiting compact()
+    private int deadCount;
+
+    public Population(PopulationStore store) {
+        this(store, 16);
+    }
+
+    public Population(PopulationStore store, int initialCapacity) {
+        this.store = store;
+        this.elements = new AICreature[Math.max(16, initialCapacity)];
+    }
+
+    public PopulationStore store() {
+        return store;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public AICreature get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public AICreature set(int index, AICreature c) {
+        Objects.checkIndex(index, size);
+        checkNew(c);
+        AICreature old = elements[index];
+        indexBySlot[old.slot()] = -1;
+        elements[index] = c;
+        track(c, index);
+        if (isDead(index)) {
+            clearDead(index);
+            deadCount--;
+        }
+        return old;
+    }
+
+    @Override
+    public boolean add(AICreature c) {
+        checkNew(c);
+        ensureCapacity(1);
+        elements[size] = c;
+        track(c, size);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /** Make room for {@code additional} more creatures (e.g. a batch of newborns). */
+    public void ensureCapacity(int additional) {
+        int needed = size + additional;
+        if (needed > elements.length) elements = Arrays.copyOf(elements, Math.max(needed, elements.length * 2));
+        if ((needed + 63) >>> 6 > dead.length) dead = Arrays.copyOf(dead, Math.max((needed + 63) >>> 6, dead.length * 2));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof AICreature)) return -1;
+        AICreature c = (AICreature) o;
+        if (c.store() != store) return -1;
+        int slot = c.slot();
+        if (slot >= indexBySlot.length) return -1;
+        int i = indexBySlot[slot];
+        return i >= 0 && elements[i] == c ? i : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /** Remove the creature at {@code index}, shifting the ones after it down. */
+    @Override
+    public AICreature remove(int index) {
+        Objects.checkIndex(index, size);
+        AICreature removed = elements[index];
+        indexBySlot[removed.slot()] = -1;
+        boolean wasDead = isDead(index);
+        for (int i = index; i < size - 1; i++) {
+            AICreature next = elements[i + 1];
+            elements[i] = next;
+            indexBySlot[next.slot()] = i;
+            if (isDead(i + 1)) setDead(i); else clearDead(i);
+        }
+        clearDead(size - 1);
+        elements[--size] = null;
+        if (wasDead) deadCount--;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int i = indexOf(o);
+        if (i < 0) return false;
+        remove(i);
+        return true;
+    }
+
+    /**
+     * Remove the creature at {@code index} in O(1) by moving the last one
+     * into its place. Changes the order; not for use while marks are pending.
+     */
+    public AICreature swapRemove(int index) {
+        Objects.checkIndex(index, size);
+        if (deadCount > 0) throw new IllegalStateException("swapRemove with " + deadCount + " dead creature(s) awaiting compact()");
+        AICreature removed = elements[index];
+        indexBySlot[removed.slot()] = -1;
+        int last = --size;
+        if (index != last) {
+            elements[index] = elements[last];
+            indexBySlot[elements[index].slot()] = index;
+        }
+        elements[last] = null;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Mark {@code c} for removal by the next {@link #compact()}. It keeps
+     * its index until then. Returns false if it is not a member.
+     */
+    public boolean markDead(AICreature c) {
+        int i = indexOf(c);
+        if (i < 0) return false;
+        markDead(i);
+        return true;
+    }
+
+    public void markDead(int index) {
+        Objects.checkIndex(index, size);
+        if (!isDead(index)) {
+            setDead(index);
+            deadCount++;
+        }
+    }
+
+    public boolean isDead(int index) {
+        return (dead[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** Creatures marked and not yet compacted away. */
+    public int deadCount() {
+        return deadCount;
+    }
+
+    /**
+     * Drop every marked creature, keeping the order of the rest. One pass
+     * over the list; returns how many were dropped.
+     */
+    public int compact() {
+        if (deadCount == 0) return 0;
+        int removed = deadCount;
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            AICreature c = elements[r];
+            if (isDead(r)) {
+                if (indexBySlot[c.slot()] == r) indexBySlot[c.slot()] = -1;
+                continue;
+            }
+            elements[w] = c;
+            indexBySlot[c.slot()] = w;
+            w++;
+        }
+        Arrays.fill(elements, w, size, null);
+        Arrays.fill(dead, 0, (size + 63) >>> 6, 0L);
+        size = w;
+        deadCount = 0;
+        modCount++;
+        return removed;
+    }
+
+    /** Bulk removal in one pass (marked creatures are dropped as well). */
+    @Override
+    public boolean removeIf(Predicate<? super AICreature> filter) {
+        for (int i = 0; i < size; i++) {
+            if (filter.test(elements[i])) markDead(i);
+        }
+        return compact() > 0;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) indexBySlot[elements[i].slot()] = -1;
+        Arrays.fill(elements, 0, size, null);
+        Arrays.fill(dead, 0L);
+        size = 0;
+        deadCount = 0;
+        modCount++;
+    }
+
+    // --- checkpoints (see Checkpoint) ---
+
+    // members in list order: slot, locomotion and ordered trait ids of each
+    void writeTo(Checkpoint.Out out) {
+        if (deadCount > 0) throw new IllegalStateException("Checkpoint with " + deadCount + " dead creature(s) awaiting compact()");
+        int[] slots = new int[size];
+        byte[] locomotion = new byte[size];
+        int[] traitCounts = new int[size];
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            AICreature c = elements[i];
+            if (c.getClass() != AICreature.class) {
+                throw new IllegalStateException("Checkpoints hold plain creatures, not " + c.getClass().getSimpleName());
+            }
+            slots[i] = c.slot();
+            locomotion[i] = c.getLocomotion() == null ? -1 : (byte) c.getLocomotion().ordinal();
+            traitCounts[i] = c.getTraitCount();
+            total += traitCounts[i];
+        }
+        int[] ids = new int[total];
+        for (int i = 0, at = 0; i < size; at += traitCounts[i++]) elements[i].copyTraitIds(ids, at);
+        out.putInt(size).putInts(slots, 0, size).putBytes(locomotion, 0, size).putInts(traitCounts, 0, size);
+        out.putInt(total).putInts(ids, 0, total);
+    }
+
+    // append the creatures writeTo wrote, in their slots of the (restored)
+    // store; traitIds maps the checkpoint's trait ids to this run's
+    void readFrom(Checkpoint.In in, int[] traitIds) {
+        int n = in.getLength(4);
+        int[] slots = new int[n];
+        byte[] locomotion = new byte[n];
+        int[] traitCounts = new int[n];
+        in.getInts(slots, n);
+        in.getBytes(locomotion, n);
+        in.getInts(traitCounts, n);
+        int total = in.getLength(4);
+        int[] ids = new int[total];
+        in.getInts(ids, total);
+        for (int k = 0; k < total; k++) ids[k] = traitIds[ids[k]];
+        AICreature.Locomotion[] kinds = AICreature.Locomotion.values();
+        ensureCapacity(n);
+        for (int i = 0, at = 0; i < n; at += traitCounts[i++]) {
+            if (traitCounts[i] < 0 || at + traitCounts[i] > total) throw new IllegalStateException("Trait list of creature " + i + " out of range");
+            add(new AICreature(store, slots[i], ids, at, traitCounts[i], locomotion[i] < 0 ? null : kinds[locomotion[i]]));
+        }
+    }
+
+    private void checkNew(AICreature c) {
+        if (c.store() != store) throw new IllegalArgumentException("Creature belongs to another store: " + c);
+        if (contains(c)) throw new IllegalArgumentException("Creature is already a member: " + c);
+    }
+
+    private void track(AICreature c, int index) {
+        int slot = c.slot();
+        if (slot >= indexBySlot.length) {
+            int old = indexBySlot.length;
+            indexBySlot = Arrays.copyOf(indexBySlot, Math.max(slot + 1, Math.max(16, old * 2)));
+            Arrays.fill(indexBySlot, old, indexBySlot.length, -1);
+        }
+        indexBySlot[slot] = index;
+    }
+
+    private void setDead(int index) {
+        dead[index >>> 6] |= 1L << index;
+    }
+
+    private void clearDead(int index) {
+        dead[index >>> 6] &= ~(1L << index);
+    }
+}
@@ -0,0 +1,363 @@
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * PopulationStore: structure-of-arrays storage for the primitive state of
+ * creatures. Each creature owns one slot; {@link AICreature} is a thin handle
+ * that reads and writes its slot in the parallel column arrays below.
+ *
+ * Per-generation passes (ageing, stability healing, crisis damage) run as
+ * sweeps over the columns instead of chasing one heap object per creature.
+ * Slot allocation is synchronized; column access is not, so a store must not
+ * grow while another thread is sweeping or updating it.
+ *
+ * Every creature is created in a store its owner passes in, and its slot
+ * is held until the owner {@link #release releases} it; there is no shared
+ * store for creatures to pile up in.
+ */
+public final class PopulationStore {
+    public static final byte NO_GENDER = -1;
+    public static final byte FLAG_ADAPTIVE = 1;
+    public static final byte FLAG_RESILIENT = 2;
+
+    // columns (indexed by slot)
+    int[] health;
+    int[] age;
+    int[] mutationCount;
+    int[] totalDamageTaken;
+    int[] stableGenerations;
+    int[] adaptiveCharges;
+    int[] lineageId;
+    double[] weight;
+    double[] height;
+    byte[] gender;
+    float[] x;      // planet surface position (see SpatialGrid)
+    float[] y;
+    int[] version;  // modification counter, bumped whenever genetic-code state changes
+    int[] traitVersion;  // bumped only when the creature's traits change (see BatchScorer)
+    private AICreature[] handles;
+    private final LineageIdAllocator lineageIds;
+    private final ChangeJournal journal;
+
+    private long[] live;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int highWater = 0;  // slots [0, highWater) have been handed out at least once
+    private int size = 0;
+
+    public PopulationStore(int initialCapacity) {
+        this(initialCapacity, LineageIdAllocator.shared());
+    }
+
+    public PopulationStore(int initialCapacity, LineageIdAllocator lineageIds) {
+        this.lineageIds = lineageIds;
+        int cap = Math.max(16, initialCapacity);
+        health = new int[cap];
+        age = new int[cap];
+        mutationCount = new int[cap];
+        totalDamageTaken = new int[cap];
+        stableGenerations = new int[cap];
+        adaptiveCharges = new int[cap];
+        lineageId = new int[cap];
+        weight = new double[cap];
+        height = new double[cap];
+        gender = new byte[cap];
+        x = new float[cap];
+        y = new float[cap];
+        version = new int[cap];
+        traitVersion = new int[cap];
+        handles = new AICreature[cap];
+        live = new long[(cap + 63) >>> 6];
+        journal = new ChangeJournal(cap);
+    }
+
+    /**
+     * Claim a slot for a new creature, reset its columns to defaults and
+     * assign it a fresh lineage id.
+     */
+    int allocate(AICreature handle) {
+        // drawn outside the lock: the allocator is thread-local on its fast path
+        return allocate(handle, lineageIds.next());
+    }
+
+    private synchronized int allocate(AICreature handle, int lineage) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == handles.length) grow(handles.length * 2);
+            slot = highWater++;
+        }
+        health[slot] = 100;
+        age[slot] = 0;
+        mutationCount[slot] = 0;
+        totalDamageTaken[slot] = 0;
+        stableGenerations[slot] = 0;
+        adaptiveCharges[slot] = 2;
+        lineageId[slot] = lineage;
+        weight[slot] = 0.0;
+        height[slot] = 0.0;
+        gender[slot] = NO_GENDER;
+        x[slot] = 0f;
+        y[slot] = 0f;
+        version[slot]++;
+        traitVersion[slot]++;
+        handles[slot] = handle;
+        journal.forget(slot);
+        live[slot >>> 6] |= 1L << slot;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Return a slot to the free list. The handle must not be used afterwards.
+     */
+    public synchronized void release(AICreature handle) {
+        int slot = handle.slot();
+        if (handle.store() != this || handles[slot] != handle) return;
+        handles[slot] = null;
+        live[slot >>> 6] &= ~(1L << slot);
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+        size--;
+    }
+
+    /**
+     * Pre-size the columns so that {@code additional} creatures can be
+     * allocated without growing (e.g. before a parallel phase).
+     */
+    public synchronized void ensureCapacity(int additional) {
+        int needed = highWater + Math.max(0, additional - freeCount);
+        if (needed > handles.length) grow(Math.max(needed, handles.length * 2));
+    }
+
+    private void grow(int cap) {
+        health = Arrays.copyOf(health, cap);
+        age = Arrays.copyOf(age, cap);
+        mutationCount = Arrays.copyOf(mutationCount, cap);
+        totalDamageTaken = Arrays.copyOf(totalDamageTaken, cap);
+        stableGenerations = Arrays.copyOf(stableGenerations, cap);
+        adaptiveCharges = Arrays.copyOf(adaptiveCharges, cap);
+        lineageId = Arrays.copyOf(lineageId, cap);
+        weight = Arrays.copyOf(weight, cap);
+        height = Arrays.copyOf(height, cap);
+        gender = Arrays.copyOf(gender, cap);
+        x = Arrays.copyOf(x, cap);
+        y = Arrays.copyOf(y, cap);
+        version = Arrays.copyOf(version, cap);
+        traitVersion = Arrays.copyOf(traitVersion, cap);
+        handles = Arrays.copyOf(handles, cap);
+        live = Arrays.copyOf(live, (cap + 63) >>> 6);
+        journal.grow(cap);
+    }
+
+    /** Trait edits of this store's creatures, recorded while the journal is open. */
+    public ChangeJournal journal() {
+        return journal;
+    }
+
+    void modified(int slot) {
+        version[slot]++;
+    }
+
+    void traitsModified(int slot) {
+        version[slot]++;
+        traitVersion[slot]++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public AICreature handle(int slot) {
+        return handles[slot];
+    }
+
+    /**
+     * Next live slot at or after {@code from}, or -1.
+     */
+    public int nextLive(int from) {
+        int w = from >>> 6;
+        if (w >= live.length) return -1;
+        long word = live[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == live.length) return -1;
+            word = live[w];
+        }
+    }
+
+    // --- column sweeps over all live slots ---
+
+    public void incrementAgeAll() {
+        int[] age = this.age;
+        int[] version = this.version;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) {
+            age[s]++;
+            version[s]++;
+        }
+    }
+
+    public void resetStabilityAll() {
+        int[] stable = this.stableGenerations;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) stable[s] = 0;
+    }
+
+    public void rechargeAdaptiveAll() {
+        int[] charges = this.adaptiveCharges;
+        int[] version = this.version;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) {
+            charges[s] = 2;
+            version[s]++;
+        }
+    }
+
+    /**
+     * Move every live creature one tick: a step of its locomotion speed
+     * ({@link AICreature.Locomotion#speedOf}) in a random direction, wrapping
+     * around the edges of an {@code extent} x {@code extent} planet. Positions
+     * do not count as genetic-code state, so versions are left alone.
+     */
+    public void moveAll(RandomGenerator random, float extent) {
+        float[] x = this.x;
+        float[] y = this.y;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            float step = AICreature.Locomotion.speedOf(handles[s].getLocomotion());
+            x[s] = wrap(x[s] + (float) (Math.cos(angle) * step), extent);
+            y[s] = wrap(y[s] + (float) (Math.sin(angle) * step), extent);
+        }
+    }
+
+    // v folded into [0, extent), the planet wrapping around at its edges
+    static float wrap(float v, float extent) {
+        v %= extent;
+        if (v < 0) v += extent;
+        // v + extent can round up to extent itself
+        return v < extent ? v : 0f;
+    }
+
+    /**
+     * Bump stability for every live creature and heal the ones that have been
+     * stable for at least {@code threshold} generations.
+     *
+     * @return slots that were healed, in slot order
+     */
+    public int[] stabilizeAndHeal(int threshold, int amount) {
+        int[] stable = this.stableGenerations;
+        int[] health = this.health;
+        int[] healed = new int[16];
+        int n = 0;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) {
+            stable[s]++;
+            if (stable[s] >= threshold && health[s] > 0) {
+                health[s] = Math.min(100, health[s] + amount);
+                version[s]++;
+                if (n == healed.length) healed = Arrays.copyOf(healed, n * 2);
+                healed[n++] = s;
+            }
+        }
+        return Arrays.copyOf(healed, n);
+    }
+
+    /**
+     * Apply crisis damage for missing required traits. {@code missing[slot]}
+     * is the number of missing traits and {@code flags[slot]} carries
+     * {@link #FLAG_ADAPTIVE} / {@link #FLAG_RESILIENT}. Each consumed adaptive
+     * charge halves the damage; resilience halves it again.
+     *
+     * Writes the damage dealt to {@code damageOut[slot]} and the charges
+     * consumed to {@code adaptiveUsedOut[slot]} (both zero when unharmed).
+     */
+    public void applyCrisisDamage(int[] missing, byte[] flags, int[] damageOut, int[] adaptiveUsedOut) {
+        int[] health = this.health;
+        int[] damageTaken = this.totalDamageTaken;
+        int[] charges = this.adaptiveCharges;
+        for (int s = nextLive(0); s >= 0; s = nextLive(s + 1)) {
+            int m = missing[s];
+            if (m == 0) {
+                damageOut[s] = 0;
+                adaptiveUsedOut[s] = 0;
+                continue;
+            }
+            double dmg = 30.0 * m;
+            int used = 0;
+            if ((flags[s] & FLAG_ADAPTIVE) != 0) {
+                used = Math.max(0, Math.min(Math.min(2, m), charges[s]));
+                charges[s] -= used;
+            }
+            dmg *= Math.pow(0.5, used);
+            if ((flags[s] & FLAG_RESILIENT) != 0) dmg *= 0.5;
+            int idmg = (int) Math.ceil(dmg);
+            damageTaken[s] += idmg;
+            health[s] = Math.max(0, health[s] - idmg);
+            version[s]++;
+            damageOut[s] = idmg;
+            adaptiveUsedOut[s] = used;
+        }
+    }
+
+    /**
+     * Length that slot-indexed scratch arrays passed to the sweeps must have.
+     */
+    public int slotCapacity() {
+        return highWater;
+    }
+
+    // --- checkpoints (see Checkpoint) ---
+
+    // slot layout, lineage high-water mark and the columns of slots [0, highWater)
+    synchronized void writeTo(Checkpoint.Out out) {
+        int n = highWater;
+        out.putInt(n).putInt(freeCount).putInts(freeSlots, 0, freeCount);
+        out.putLong(lineageIds.highWaterMark());
+        out.putInts(health, 0, n).putInts(age, 0, n).putInts(mutationCount, 0, n)
+                .putInts(totalDamageTaken, 0, n).putInts(stableGenerations, 0, n)
+                .putInts(adaptiveCharges, 0, n).putInts(lineageId, 0, n)
+                .putDoubles(weight, 0, n).putDoubles(height, 0, n).putBytes(gender, 0, n)
+                .putFloats(x, 0, n).putFloats(y, 0, n)
+                .putInts(version, 0, n).putInts(traitVersion, 0, n);
+    }
+
+    // read what writeTo wrote into this empty store; the live slots stay
+    // without a creature until each is restored through adopt()
+    synchronized void readFrom(Checkpoint.In in) {
+        if (highWater != 0) throw new IllegalStateException("Checkpoints restore into an empty store");
+        int n = in.getLength(4);
+        int free = in.getLength(4);
+        if (free > n) throw new IllegalStateException(free + " free slots of " + n);
+        if (n > handles.length) grow(n);
+        if (free > freeSlots.length) freeSlots = new int[free];
+        in.getInts(freeSlots, free);
+        freeCount = free;
+        highWater = n;
+        // ids up to the mark may have been handed out before the checkpoint
+        lineageIds.advancePast(in.getLong() - 1);
+        in.getInts(health, n);
+        in.getInts(age, n);
+        in.getInts(mutationCount, n);
+        in.getInts(totalDamageTaken, n);
+        in.getInts(stableGenerations, n);
+        in.getInts(adaptiveCharges, n);
+        in.getInts(lineageId, n);
+        in.getDoubles(weight, n);
+        in.getDoubles(height, n);
+        in.getBytes(gender, n);
+        in.getFloats(x, n);
+        in.getFloats(y, n);
+        in.getInts(version, n);
+        in.getInts(traitVersion, n);
+    }
+
+    // claim a slot restored by readFrom for its creature, keeping its columns
+    synchronized int adopt(AICreature handle, int slot) {
+        if (slot < 0 || slot >= highWater || handles[slot] != null) {
+            throw new IllegalStateException("Slot " + slot + " cannot be restored");
+        }
+        handles[slot] = handle;
+        journal.forget(slot);
+        live[slot >>> 6] |= 1L << slot;
+        size++;
+        return slot;
+    }
+}
@@ -0,0 +1,373 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * ReproductionEngine: steady-state breeding. Each generation the weakest
+ * creatures are replaced by offspring of the strong.
+ *
+ * Given the population and its competition scores (by slot, as
+ * {@link BatchScorer} computes them), {@link #breed} picks the
+ * {@code replacementRate} lowest-scoring creatures as victims. The
+ * {@code elites} best are never victims. For each victim it breeds one
+ * offspring:
+ * <ul>
+ *   <li>selection: two parents by tournament (best of {@code tournamentSize}
+ *       random creatures) or roulette (chance proportional to score above
+ *       the population minimum). When the first parent has a gender, the
+ *       second is drawn from the opposite one if any is found.</li>
+ *   <li>trait crossover: traits both parents carry are inherited, every
+ *       other trait of either parent with probability 1/2.</li>
+ *   <li>physical crossover, when both parents are
+ *       {@link AdvancedAICreature}s: skin, color, shape and locomotion each
+ *       from one parent, weight and height blended with a little jitter.</li>
+ *   <li>mutation: with {@code mutationChance}, one point mutation of the
+ *       inherited traits.</li>
+ * </ul>
+ * Offspring are bred in partitions of {@link #PARTITION_SIZE} on the
+ * fork-join pool. Partition {@code p} draws from {@code seeds.partition(p)},
+ * so the brood depends only on the seed. Breeding only reads the
+ * population. The result is a {@link Brood} of plain data, whose offspring
+ * are {@link Brood#hatch hatched} one by one by the caller as it removes
+ * the victims. Hatching in order allocates store slots deterministically.
+ */
+public final class ReproductionEngine {
+    public static final int PARTITION_SIZE = 4096;
+    public static final int DEFAULT_TOURNAMENT_SIZE = 3;
+    public static final double DEFAULT_REPLACEMENT_RATE = 0.1;
+    public static final int DEFAULT_ELITES = 1;
+    public static final double DEFAULT_MUTATION_CHANCE = 0.25;
+
+    public enum Selection {
+        TOURNAMENT, ROULETTE;
+
+        /**
+         * Parse a command-line name ("tournament", "roulette").
+         */
+        public static Selection parse(String name) {
+            switch (name.toLowerCase()) {
+                case "tournament": return TOURNAMENT;
+                case "roulette": return ROULETTE;
+                default: throw new IllegalArgumentException("Unknown selection: " + name);
+            }
+        }
+    }
+
+    // offspring draw from physical crossover inheritance (bits of Brood.from)
+    private static final int SKIN_FROM_B = 1, COLOR_FROM_B = 2, SHAPE_FROM_B = 4, LOCOMOTION_FROM_B = 8;
+    private static final double FEMALE_WEIGHT = 0.80, FEMALE_HEIGHT = 0.85;   // see AdvancedAICreature
+    private static final double PHYSICAL_JITTER = 0.05;
+    private static final String EXOTIC = "Exotic ";
+    private static final float BIRTH_SPREAD = 5f;   // planet units around the first parent
+
+    private final Selection selection;
+    private int tournamentSize = DEFAULT_TOURNAMENT_SIZE;
+    private double replacementRate = DEFAULT_REPLACEMENT_RATE;
+    private int elites = DEFAULT_ELITES;
+    private double mutationChance = DEFAULT_MUTATION_CHANCE;
+    private boolean parallel = true;
+
+    public ReproductionEngine(Selection selection) {
+        this.selection = selection;
+    }
+
+    public Selection getSelection() {
+        return selection;
+    }
+
+    public void setTournamentSize(int tournamentSize) {
+        if (tournamentSize < 1) throw new IllegalArgumentException("tournamentSize must be >= 1");
+        this.tournamentSize = tournamentSize;
+    }
+
+    /** Fraction of the population replaced by offspring each generation. */
+    public void setReplacementRate(double replacementRate) {
+        if (!(replacementRate >= 0 && replacementRate <= 1)) throw new IllegalArgumentException("replacementRate must be in [0, 1]");
+        this.replacementRate = replacementRate;
+    }
+
+    /** Number of best-scoring creatures that are never replaced. */
+    public void setElites(int elites) {
+        if (elites < 0) throw new IllegalArgumentException("elites must be >= 0");
+        this.elites = elites;
+    }
+
+    public void setMutationChance(double mutationChance) {
+        this.mutationChance = mutationChance;
+    }
+
+    /**
+     * Breed partitions on the fork-join pool (default) or one after the
+     * other; both give the same brood for the same seed.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Choose this generation's victims among {@code population} and breed one
+     * offspring for each. {@code scoresBySlot} holds the competition score of
+     * every member at its store slot.
+     */
+    public Brood breed(List<AICreature> population, int[] scoresBySlot, SeedTree seeds) {
+        int n = population.size();
+        int count = n < 2 ? 0 : (int) Math.min(n - Math.min(elites, n), Math.round(n * replacementRate));
+        Brood brood = new Brood(count);
+        if (count == 0) return brood;
+
+        // rank by (score, index); the lowest become victims
+        int[] scores = new int[n];
+        long[] ranked = new long[n];
+        for (int i = 0; i < n; i++) {
+            scores[i] = scoresBySlot[population.get(i).slot()];
+            ranked[i] = ((long) scores[i] << 32) | i;
+        }
+        if (parallel) Arrays.parallelSort(ranked); else Arrays.sort(ranked);
+        for (int v = 0; v < count; v++) brood.victims[v] = population.get((int) ranked[v]);
+
+        long[] roulette = selection == Selection.ROULETTE ? rouletteWheel(scores, (int) (ranked[0] >>> 32)) : null;
+        Breeding breeding = new Breeding(population, scores, roulette, brood, seeds);
+        int partitions = (count + PARTITION_SIZE - 1) / PARTITION_SIZE;
+        if (parallel && partitions > 1) {
+            ForkJoinPool.commonPool().invoke(new PartitionRange(breeding, 0, partitions));
+        } else {
+            for (int p = 0; p < partitions; p++) breeding.partition(p);
+        }
+        return brood;
+    }
+
+    // cumulative weights: score - min + 1, so every creature has a chance
+    private static long[] rouletteWheel(int[] scores, int min) {
+        long[] cumulative = new long[scores.length];
+        long total = 0;
+        for (int i = 0; i < scores.length; i++) {
+            total += (long) scores[i] - min + 1;
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Offspring of one generation, as plain data until hatched: offspring
+     * {@code i} replaces {@link #victim(int) victim i} (weakest first).
+     */
+    public static final class Brood {
+        final AICreature[] victims;
+        final int[][] traits;
+        final int[] traitCount;
+        final int[] lineageA, lineageB;
+        final AICreature.Locomotion[] locomotion;
+        final float[] x, y;
+        // physical crossover; physical[i] is null unless both parents are advanced
+        final String[][] physical;     // skin, base color, shape
+        final double[] baseWeight, baseHeight;
+        final long[] genderSeed;
+
+        Brood(int size) {
+            victims = new AICreature[size];
+            traits = new int[size][];
+            traitCount = new int[size];
+            lineageA = new int[size];
+            lineageB = new int[size];
+            locomotion = new AICreature.Locomotion[size];
+            x = new float[size];
+            y = new float[size];
+            physical = new String[size][];
+            baseWeight = new double[size];
+            baseHeight = new double[size];
+            genderSeed = new long[size];
+        }
+
+        public int size() {
+            return victims.length;
+        }
+
+        public AICreature victim(int i) {
+            return victims[i];
+        }
+
+        public int parentLineageA(int i) {
+            return lineageA[i];
+        }
+
+        public int parentLineageB(int i) {
+            return lineageB[i];
+        }
+
+        /**
+         * Create offspring {@code i} in {@code store}. Hatch in index order,
+         * after releasing the victim, so the offspring takes its slot.
+         */
+        public AICreature hatch(int i, PopulationStore store) {
+            AICreature child;
+            if (physical[i] != null) {
+                String[] names = new String[traitCount[i]];
+                for (int t = 0; t < names.length; t++) names[t] = TraitDictionary.name(traits[i][t]);
+                child = new AdvancedAICreature(store, new SplittableRandom(genderSeed[i]), locomotion[i],
+                        physical[i][0], physical[i][1], physical[i][2], baseWeight[i], baseHeight[i], names);
+            } else {
+                child = new AICreature(store, traits[i], traitCount[i]);
+                if (locomotion[i] != null) child.setLocomotion(locomotion[i]);
+            }
+            child.setPosition(x[i], y[i]);
+            return child;
+        }
+    }
+
+    // selection and crossover over one population snapshot
+    private final class Breeding {
+        final List<AICreature> population;
+        final int[] scores;        // by population index
+        final long[] roulette;     // cumulative weights, or null for tournaments
+        final Brood brood;
+        final SeedTree seeds;
+
+        Breeding(List<AICreature> population, int[] scores, long[] roulette, Brood brood, SeedTree seeds) {
+            this.population = population;
+            this.scores = scores;
+            this.roulette = roulette;
+            this.brood = brood;
+            this.seeds = seeds;
+        }
+
+        void partition(int p) {
+            SplittableRandom random = seeds.partition(p).stream();
+            TraitSet seen = new TraitSet();
+            int end = Math.min(brood.size(), (p + 1) * PARTITION_SIZE);
+            for (int i = p * PARTITION_SIZE; i < end; i++) {
+                AICreature a = population.get(select(random, -1));
+                AdvancedAICreature.Gender want = opposite(a);
+                AICreature b = population.get(select(random, want == null ? -1 : want.ordinal()));
+                breedOne(i, a, b, random, seen);
+            }
+        }
+
+        // population index of a parent; with gender >= 0, prefer that gender
+        int select(RandomGenerator random, int gender) {
+            int tries = gender < 0 ? 1 : 4;
+            int best = -1;
+            for (int t = 0; t < tries; t++) {
+                int pick = selection == Selection.ROULETTE ? spin(random) : tournament(random);
+                if (best < 0) best = pick;
+                if (gender < 0 || genderOf(population.get(pick)) == gender) return pick;
+            }
+            return best;
+        }
+
+        int tournament(RandomGenerator random) {
+            int n = population.size();
+            int best = random.nextInt(n);
+            for (int k = 1; k < tournamentSize; k++) {
+                int c = random.nextInt(n);
+                if (scores[c] > scores[best] || (scores[c] == scores[best] && c < best)) best = c;
+            }
+            return best;
+        }
+
+        int spin(RandomGenerator random) {
+            long ball = random.nextLong(roulette[roulette.length - 1]);
+            int i = Arrays.binarySearch(roulette, ball + 1);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        void breedOne(int i, AICreature a, AICreature b, RandomGenerator random, TraitSet seen) {
+            Brood out = brood;
+            int[] ids = new int[a.getTraitCount() + b.getTraitCount() + 1];
+            int count = 0;
+            seen.clear();
+            TraitSet fromB = b.getTraits();
+            for (int t = 0; t < a.getTraitCount(); t++) {
+                int id = a.getTraitId(t);
+                if (seen.contains(id)) continue;
+                seen.add(id);
+                if (fromB.contains(id) || random.nextBoolean()) ids[count++] = id;
+            }
+            for (int t = 0; t < b.getTraitCount(); t++) {
+                int id = b.getTraitId(t);
+                if (seen.contains(id)) continue;
+                seen.add(id);
+                if (random.nextBoolean()) ids[count++] = id;
+            }
+            if (random.nextDouble() < mutationChance) count = MutationEngine.mutateOffspring(ids, count, random);
+            out.traits[i] = ids;
+            out.traitCount[i] = count;
+            out.lineageA[i] = a.getLineageId();
+            out.lineageB[i] = b.getLineageId();
+
+            int from = random.nextInt(16);
+            out.locomotion[i] = ((from & LOCOMOTION_FROM_B) != 0 ? b : a).getLocomotion();
+            out.x[i] = a.getX() + (float) ((random.nextDouble() * 2 - 1) * BIRTH_SPREAD);
+            out.y[i] = a.getY() + (float) ((random.nextDouble() * 2 - 1) * BIRTH_SPREAD);
+            if (a instanceof AdvancedAICreature && b instanceof AdvancedAICreature) {
+                AdvancedAICreature pa = (AdvancedAICreature) a, pb = (AdvancedAICreature) b;
+                out.physical[i] = new String[] {
+                    ((from & SKIN_FROM_B) != 0 ? pb : pa).getSkinType(),
+                    baseColor(((from & COLOR_FROM_B) != 0 ? pb : pa).getColor()),
+                    ((from & SHAPE_FROM_B) != 0 ? pb : pa).getShape()
+                };
+                double blend = random.nextDouble();
+                out.baseWeight[i] = jitter(lerp(baseWeight(pa), baseWeight(pb), blend), random);
+                out.baseHeight[i] = jitter(lerp(baseHeight(pa), baseHeight(pb), blend), random);
+                out.genderSeed[i] = random.nextLong();
+            }
+        }
+    }
+
+    private final class PartitionRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Breeding breeding;
+        private final int from, to;
+
+        PartitionRange(Breeding breeding, int from, int to) {
+            this.breeding = breeding; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                breeding.partition(from);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PartitionRange(breeding, from, mid), new PartitionRange(breeding, mid, to));
+            }
+        }
+    }
+
+    private static AdvancedAICreature.Gender opposite(AICreature c) {
+        if (!(c instanceof AdvancedAICreature)) return null;
+        AdvancedAICreature.Gender g = ((AdvancedAICreature) c).getGender();
+        if (g == null) return null;
+        return g == AdvancedAICreature.Gender.MALE ? AdvancedAICreature.Gender.FEMALE : AdvancedAICreature.Gender.MALE;
+    }
+
+    private static int genderOf(AICreature c) {
+        if (!(c instanceof AdvancedAICreature)) return -1;
+        AdvancedAICreature.Gender g = ((AdvancedAICreature) c).getGender();
+        return g == null ? -1 : g.ordinal();
+    }
+
+    // weight and height before sexual dimorphism, as passed to the constructor
+    private static double baseWeight(AdvancedAICreature c) {
+        return c.getGender() == AdvancedAICreature.Gender.FEMALE ? c.getWeight() / FEMALE_WEIGHT : c.getWeight();
+    }
+
+    private static double baseHeight(AdvancedAICreature c) {
+        return c.getGender() == AdvancedAICreature.Gender.FEMALE ? c.getHeight() / FEMALE_HEIGHT : c.getHeight();
+    }
+
+    private static String baseColor(String color) {
+        return color != null && color.startsWith(EXOTIC) ? color.substring(EXOTIC.length()) : color;
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    private static double jitter(double v, RandomGenerator random) {
+        return v * (1 + (random.nextDouble() * 2 - 1) * PHYSICAL_JITTER);
+    }
+}
@@ -0,0 +1,46 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SamplingEventSink: forwards one in every {@code n} events of each type to
+ * a delegate, plus every milestone event (crises, extinctions, respawns,
+ * setup messages). Sampling is counter based, so it never draws from the
+ * simulation's random streams and a seeded run stays reproducible.
+ */
+public class SamplingEventSink implements SimulationEventSink {
+    private final SimulationEventSink delegate;
+    private final long n;
+    private final ClassValue<AtomicLong> counters = new ClassValue<AtomicLong>() {
+        @Override
+        protected AtomicLong computeValue(Class<?> type) {
+            return new AtomicLong();
+        }
+    };
+
+    public SamplingEventSink(SimulationEventSink delegate, long n) {
+        if (n < 1) throw new IllegalArgumentException("sampling interval must be >= 1");
+        this.delegate = delegate;
+        this.n = n;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @Override
+    public void accept(SimulationEvent event) {
+        if (event.isMilestone() || counters.get(event.getClass()).getAndIncrement() % n == 0) {
+            delegate.accept(event);
+        }
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
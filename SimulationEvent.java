@@ -0,0 +1,445 @@
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * SimulationEvent: typed record of something that happened in a world
+ * (mutation, duel, extinction, crisis, ...), delivered to a
+ * {@link SimulationEventSink} instead of being printed on the spot.
+ *
+ * Events hold primitives and already-immutable objects only, so a sink may
+ * format them later on another thread; {@link #describe()} renders exactly
+ * the console line the simulation used to print. Producers check
+ * {@link SimulationEventSink#isEnabled()} first, so nothing is built when
+ * nobody listens.
+ */
+public abstract class SimulationEvent {
+    public static final String CAUSE_CRISIS = "PlanetCrisis";
+    public static final String CAUSE_DUEL = "Competition_Duel";
+    public static final String CAUSE_REPLACED = "Outcompeted";
+
+    /** Text form of the event (may span several lines, no trailing newline). */
+    public abstract String describe();
+
+    /**
+     * Rare events that matter for following a run (crises, extinctions, ...);
+     * sampling sinks always keep them.
+     */
+    public boolean isMilestone() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+
+    /**
+     * Snapshot of a creature as it was when the event was raised, rendered
+     * like {@link AICreature#toString()}. The trait view is never modified
+     * in place, so keeping the reference is enough.
+     */
+    public static final class Subject {
+        public final int lineageId;
+        public final int age;
+        public final int health;
+        public final String geneticCode;
+        private final String[] attributes;
+        private final String text;   // pre-rendered for subclasses with their own toString
+
+        private Subject(AICreature c) {
+            this.lineageId = c.getLineageId();
+            this.age = c.getAge();
+            this.health = c.getHealth();
+            this.geneticCode = c.getGeneticCode();
+            this.attributes = c.getAttributes();
+            this.text = c.getClass() == AICreature.class ? null : c.toString();
+        }
+
+        public static Subject of(AICreature c) {
+            return new Subject(c);
+        }
+
+        @Override
+        public String toString() {
+            if (text != null) return text;
+            return "AICreature{" +
+                    "attributes=" + Arrays.toString(attributes) +
+                    ", age=" + age +
+                    ", health=" + health +
+                    ", lineage=" + lineageId +
+                    ", dna=" + geneticCode +
+                    '}';
+        }
+    }
+
+    /** Free-form line (planet setup and other one-off messages). */
+    public static final class Message extends SimulationEvent {
+        public final String text;
+
+        public Message(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String describe() {
+            return text;
+        }
+
+        @Override
+        public boolean isMilestone() {
+            return true;
+        }
+    }
+
+    /** Internal or physical trait mutation applied by the MutationEngine. */
+    public static final class MutationEvent extends SimulationEvent {
+        public enum Kind {
+            VITAL_REEVOLVED, VITAL_PRESENT, ADDED, ADDED_FALLBACK, REMOVED, NOTHING_TO_REMOVE,
+            MODIFIED, MODIFY_NO_OP, NOTHING_TO_MODIFY, PHYSICAL
+        }
+
+        public final Subject creature;   // state before the mutation
+        public final Kind kind;
+        public final int trait;          // trait id added/removed/replaced, -1 if none
+        public final int newTrait;       // replacement id for MODIFIED, -1 otherwise
+
+        public MutationEvent(Subject creature, Kind kind, int trait, int newTrait) {
+            this.creature = creature;
+            this.kind = kind;
+            this.trait = trait;
+            this.newTrait = newTrait;
+        }
+
+        @Override
+        public String describe() {
+            if (kind == Kind.PHYSICAL) return "  - Mutation: " + creature + " gained a physical trait.";
+            String prefix = "  - " + creature + " internal mutation: ";
+            switch (kind) {
+                case VITAL_REEVOLVED: return prefix + "re-evolved vital trait '" + TraitDictionary.name(trait) + "'";
+                case VITAL_PRESENT: return prefix + "vital trait already present, no-op";
+                case ADDED: return prefix + "added '" + TraitDictionary.name(trait) + "'";
+                case ADDED_FALLBACK: return prefix + "added '" + TraitDictionary.name(trait) + "' (fallback)";
+                case REMOVED: return prefix + "removed '" + TraitDictionary.name(trait) + "'";
+                case NOTHING_TO_REMOVE: return prefix + "no traits to remove";
+                case MODIFIED: return prefix + "modified '" + TraitDictionary.name(trait) + "' -> '" + TraitDictionary.name(newTrait) + "'";
+                case MODIFY_NO_OP: return prefix + "modification resulted in duplicate/no-op";
+                default: return prefix + "no traits to modify";
+            }
+        }
+    }
+
+    /** Start or end of one evolution cycle of the CreatureEvolutionManager. */
+    public static final class EvolutionCycleEvent extends SimulationEvent {
+        public final boolean started;
+
+        public EvolutionCycleEvent(boolean started) {
+            this.started = started;
+        }
+
+        @Override
+        public String describe() {
+            return started ? "\n--- Starting Creature Evolution Cycle ---" : "--- Evolution Cycle Finished ---\n";
+        }
+    }
+
+    /** A PlanetCrisis switched the environment. */
+    public static final class CrisisEvent extends SimulationEvent {
+        public final String planetType;
+        public final String atmosphere;
+
+        public CrisisEvent(String planetType, String atmosphere) {
+            this.planetType = planetType;
+            this.atmosphere = atmosphere;
+        }
+
+        @Override
+        public String describe() {
+            return "!! PLANET CRISIS: environment shifting to " + planetType + " (" + atmosphere + ") !!";
+        }
+
+        @Override
+        public boolean isMilestone() {
+            return true;
+        }
+    }
+
+    /** Scheduled orbit shift changed the environment. */
+    public static final class EnvironmentShiftEvent extends SimulationEvent {
+        public final String fromType;
+        public final String fromAtmosphere;
+        public final String toType;
+        public final String toAtmosphere;
+
+        public EnvironmentShiftEvent(String fromType, String fromAtmosphere, String toType, String toAtmosphere) {
+            this.fromType = fromType;
+            this.fromAtmosphere = fromAtmosphere;
+            this.toType = toType;
+            this.toAtmosphere = toAtmosphere;
+        }
+
+        @Override
+        public String describe() {
+            return "-- ORBIT SHIFT EVENT: Planet environment is changing --\n"
+                    + "Planet changed: " + fromType + " (" + fromAtmosphere + ") -> " + toType + " (" + toAtmosphere + ")";
+        }
+
+        @Override
+        public boolean isMilestone() {
+            return true;
+        }
+    }
+
+    /** Damage dealt by a crisis to a creature missing required traits. */
+    public static final class CrisisDamageEvent extends SimulationEvent {
+        public final Subject creature;
+        public final int damage;
+        public final TraitSet missing;
+        public final int adaptiveUsed;
+
+        public CrisisDamageEvent(Subject creature, int damage, TraitSet missing, int adaptiveUsed) {
+            this.creature = creature;
+            this.damage = damage;
+            this.missing = missing;
+            this.adaptiveUsed = adaptiveUsed;
+        }
+
+        @Override
+        public String describe() {
+            return "CRISIS DAMAGE applied " + damage + " to " + creature + " missing=" + missing + " adaptiveUsed=" + adaptiveUsed;
+        }
+    }
+
+    /** Creature joined the population. */
+    public static final class SpawnEvent extends SimulationEvent {
+        public final Subject creature;
+
+        public SpawnEvent(Subject creature) {
+            this.creature = creature;
+        }
+
+        @Override
+        public String describe() {
+            return "AI Creature added to player list: " + creature;
+        }
+    }
+
+    /** Creature died and was fossilized. */
+    public static final class ExtinctionEvent extends SimulationEvent {
+        public final Subject creature;
+        public final String cause;
+
+        public ExtinctionEvent(Subject creature, String cause) {
+            this.creature = creature;
+            this.cause = cause;
+        }
+
+        @Override
+        public String describe() {
+            if (CAUSE_DUEL.equals(cause)) return "EXTINCTION (duel): " + creature + " removed (fossil saved)";
+            if (CAUSE_REPLACED.equals(cause)) return "EXTINCTION (outcompeted): " + creature + " replaced by offspring (fossil saved)";
+            return "EXTINCTION: " + creature + " removed from population (fossil saved)";
+        }
+
+        @Override
+        public boolean isMilestone() {
+            return true;
+        }
+    }
+
+    /** New lineage spawned to replace an extinct creature. */
+    public static final class RespawnEvent extends SimulationEvent {
+        public final Subject creature;
+        public final String cause;
+
+        public RespawnEvent(Subject creature, String cause) {
+            this.creature = creature;
+            this.cause = cause;
+        }
+
+        @Override
+        public String describe() {
+            return (CAUSE_DUEL.equals(cause) ? "RESPAWN (duel): " : "RESPAWN: ") + "New lineage started: " + creature;
+        }
+
+        @Override
+        public boolean isMilestone() {
+            return true;
+        }
+    }
+
+    /** Offspring bred from two parents (see ReproductionEngine). */
+    public static final class BirthEvent extends SimulationEvent {
+        public final Subject creature;
+        public final int parentLineageA;
+        public final int parentLineageB;
+
+        public BirthEvent(Subject creature, int parentLineageA, int parentLineageB) {
+            this.creature = creature;
+            this.parentLineageA = parentLineageA;
+            this.parentLineageB = parentLineageB;
+        }
+
+        @Override
+        public String describe() {
+            return "BIRTH: " + creature + " bred from lineages " + parentLineageA + " x " + parentLineageB;
+        }
+    }
+
+    /** Stable creature regenerated health. */
+    public static final class RegenerationEvent extends SimulationEvent {
+        public final Subject creature;
+        public final int amount;
+        public final int stableGenerations;
+
+        public RegenerationEvent(Subject creature, int amount, int stableGenerations) {
+            this.creature = creature;
+            this.amount = amount;
+            this.stableGenerations = stableGenerations;
+        }
+
+        @Override
+        public String describe() {
+            return "  - " + creature + " regenerates +" + amount + " health (stable=" + stableGenerations + ")";
+        }
+    }
+
+    /** Traits gained and lost by a creature over one generation. */
+    public static final class TraitChangeEvent extends SimulationEvent {
+        public final int generation;
+        public final Subject creature;
+        public final Set<String> added;
+        public final Set<String> removed;
+
+        public TraitChangeEvent(int generation, Subject creature, Set<String> added, Set<String> removed) {
+            this.generation = generation;
+            this.creature = creature;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        @Override
+        public String describe() {
+            return "Gen " + generation + ": Changes for " + creature + "\n  +" + added + "\n  -" + removed;
+        }
+    }
+
+    /** Creature lacks required planet traits (possibly mitigated by 'adaptive'). */
+    public static final class SurvivabilityEvent extends SimulationEvent {
+        public final int generation;
+        public final Subject creature;
+        public final TraitSet missing;
+        public final boolean mitigated;
+
+        public SurvivabilityEvent(int generation, Subject creature, TraitSet missing, boolean mitigated) {
+            this.generation = generation;
+            this.creature = creature;
+            this.missing = missing;
+            this.mitigated = mitigated;
+        }
+
+        @Override
+        public String describe() {
+            if (mitigated) return "Gen " + generation + ": ADAPTIVE mitigated missing=" + missing + " for " + creature;
+            return "Gen " + generation + ": SURVIVABILITY WARNING for " + creature + " missing=" + missing;
+        }
+    }
+
+    /** Competition ranking of a generation, best first (possibly only the top of it). */
+    public static final class RankingEvent extends SimulationEvent {
+        public final int generation;
+        public final int competitors;    // creatures ranked; may exceed size()
+        private final String[] geneticCodes;
+        private final int[] scores;
+
+        public RankingEvent(int generation, String[] geneticCodes, int[] scores) {
+            this(generation, geneticCodes, scores, scores.length);
+        }
+
+        public RankingEvent(int generation, String[] geneticCodes, int[] scores, int competitors) {
+            this.generation = generation;
+            this.geneticCodes = geneticCodes;
+            this.scores = scores;
+            this.competitors = competitors;
+        }
+
+        public int size() {
+            return scores.length;
+        }
+
+        public String geneticCode(int rank) {
+            return geneticCodes[rank];
+        }
+
+        public int score(int rank) {
+            return scores[rank];
+        }
+
+        @Override
+        public String describe() {
+            StringBuilder sb = new StringBuilder("Gen ").append(generation).append(": Competition ranking");
+            if (competitors > scores.length) sb.append(" (top ").append(scores.length).append(" of ").append(competitors).append(')');
+            sb.append(':');
+            for (int i = 0; i < scores.length; i++) {
+                sb.append("\n  ").append(geneticCodes[i]).append(" -> score=").append(scores[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Outcome of one duel between competition ranks i and j; both are -1
+     * when the pool was not ranked, and the duel is told by lineage.
+     */
+    public static final class DuelEvent extends SimulationEvent {
+        public final int i;
+        public final int j;
+        public final int lineageA;
+        public final int lineageB;
+        public final boolean draw;
+        public final int winnerLineage;  // -1 on a draw
+        public final int damage;
+        public final int healthA;
+        public final int healthB;
+        public final String codeA;       // genetic codes, only kept for draws
+        public final String codeB;
+
+        public DuelEvent(int i, int j, CombatSystem.DuelResult res) {
+            this.i = i;
+            this.j = j;
+            this.lineageA = res.a.getLineageId();
+            this.lineageB = res.b.getLineageId();
+            this.draw = res.draw;
+            this.winnerLineage = res.draw ? -1 : res.winner.getLineageId();
+            this.damage = res.damageDealtToLoser;
+            this.healthA = res.a.getHealth();
+            this.healthB = res.b.getHealth();
+            this.codeA = res.draw ? res.a.getGeneticCode() : null;
+            this.codeB = res.draw ? res.b.getGeneticCode() : null;
+        }
+
+        @Override
+        public String describe() {
+            String pair = i < 0 ? String.format("lineage %d vs %d", lineageA, lineageB) : String.format("%d vs %d", i, j);
+            if (draw) {
+                return String.format("  Duel %s: DRAW — %s and %s both took damage (h=%d, h=%d)", pair, codeA, codeB, healthA, healthB);
+            }
+            return String.format("  Duel %s: winner lineage=%d damage=%d — healths: %d, %d", pair, winnerLineage, damage, healthA, healthB);
+        }
+    }
+
+    /** Top-ranked survivor rewarded after the duels. */
+    public static final class DuelWinnerEvent extends SimulationEvent {
+        public final Subject creature;
+        public final int score;
+
+        public DuelWinnerEvent(Subject creature, int score) {
+            this.creature = creature;
+            this.score = score;
+        }
+
+        @Override
+        public String describe() {
+            return "  Winner after duels: " + creature + " (score=" + score + ")\n";
+        }
+    }
+}
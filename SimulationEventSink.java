@@ -0,0 +1,40 @@
+/**
+ * SimulationEventSink: destination for {@link SimulationEvent}s.
+ *
+ * Producers guard every event with {@link #isEnabled()}, so a disabled sink
+ * costs one call per would-be event and the event is never built:
+ * <pre>
+ *   if (events.isEnabled()) events.accept(new SimulationEvent.DuelEvent(i, j, res));
+ * </pre>
+ * Implementations must accept events from several threads.
+ */
+public interface SimulationEventSink {
+
+    /** Sink that drops everything; producers skip building events for it. */
+    SimulationEventSink NONE = new SimulationEventSink() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void accept(SimulationEvent event) {
+        }
+    };
+
+    /** False when events would be discarded anyway. */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    void accept(SimulationEvent event);
+
+    /** Block until every event accepted so far has been written out. */
+    default void flush() {
+    }
+
+    /** Flush and release the sink's resources (threads, streams). */
+    default void close() {
+        flush();
+    }
+}
@@ -0,0 +1,255 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * SpatialGrid: uniform-grid spatial hash over the planet surface.
+ *
+ * The planet is an {@code extent} x {@code extent} square that wraps at the
+ * edges, cut into side x side cells (side a power of two). Cells are
+ * numbered by their Morton (Z-order) code, so cells that are close on the
+ * planet are mostly close in the cell arrays too, and walking the cells in
+ * index order visits the planet patch by patch.
+ *
+ * Each cell holds an intrusive doubly-linked list of store slots, so
+ * {@link #update()} only relinks the creatures that crossed into another
+ * cell, and a neighbor query reads the creature's own cell plus the eight
+ * around it. Positions come from the PopulationStore columns
+ * ({@link AICreature#getX()}, {@link AICreature#getY()}). Not thread-safe.
+ */
+public final class SpatialGrid {
+    // creatures per cell the grid is sized for
+    public static final int TARGET_PER_CELL = 4;
+    private static final int MAX_SIDE = 1 << 15;
+    private static final int NONE = -1;
+
+    private final PopulationStore store;
+    private final float extent;
+    private final int side;
+    private final float cellsPerUnit;
+    private final int[] head;         // first slot per cell (Morton index), NONE when empty
+
+    // by slot
+    private int[] cell = new int[0];  // NONE when not in the grid
+    private int[] next = new int[0];
+    private int[] prev = new int[0];
+    private int size;
+
+    public SpatialGrid(PopulationStore store, float extent, int side) {
+        if (side < 1 || side > MAX_SIDE || Integer.bitCount(side) != 1) {
+            throw new IllegalArgumentException("Grid side must be a power of two up to " + MAX_SIDE + ": " + side);
+        }
+        this.store = store;
+        this.extent = extent;
+        this.side = side;
+        this.cellsPerUnit = side / extent;
+        this.head = new int[side * side];
+        Arrays.fill(head, NONE);
+    }
+
+    /**
+     * Grid with about {@link #TARGET_PER_CELL} creatures per cell for a
+     * population of {@code expected}.
+     */
+    public static SpatialGrid forPopulation(PopulationStore store, float extent, int expected) {
+        int side = 1;
+        while (side < MAX_SIDE && (long) side * side * TARGET_PER_CELL < expected) side <<= 1;
+        return new SpatialGrid(store, extent, side);
+    }
+
+    public float extent() {
+        return extent;
+    }
+
+    public int side() {
+        return side;
+    }
+
+    public int cellCount() {
+        return head.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(AICreature c) {
+        int slot = checkedSlot(c);
+        ensureSlot(slot);
+        if (cell[slot] != NONE) return;
+        link(slot, cellAt(store.x[slot], store.y[slot]));
+        size++;
+    }
+
+    public void remove(AICreature c) {
+        int slot = checkedSlot(c);
+        if (slot >= cell.length || cell[slot] == NONE) return;
+        unlink(slot);
+        size--;
+    }
+
+    /**
+     * Re-file one creature after its position was set.
+     */
+    public void moved(AICreature c) {
+        int slot = checkedSlot(c);
+        if (slot >= cell.length || cell[slot] == NONE) return;
+        relink(slot);
+    }
+
+    /**
+     * Re-file every creature after a movement sweep; only those that
+     * changed cell are touched beyond the cell computation.
+     */
+    public void update() {
+        float[] x = store.x, y = store.y;
+        for (int slot = 0; slot < cell.length; slot++) {
+            int c = cell[slot];
+            if (c == NONE) continue;
+            int now = cellAt(x[slot], y[slot]);
+            if (now != c) {
+                unlink(slot);
+                link(slot, now);
+            }
+        }
+    }
+
+    /** Morton-indexed cell of a planet position. */
+    public int cellAt(float px, float py) {
+        return morton(coord(px), coord(py));
+    }
+
+    /** Cell of a creature in the grid, or -1. */
+    public int cellOf(int slot) {
+        return slot < cell.length ? cell[slot] : NONE;
+    }
+
+    /** First slot of a cell, or -1 when empty; continue with {@link #nextInCell}. */
+    public int firstInCell(int cellIndex) {
+        return head[cellIndex];
+    }
+
+    public int nextInCell(int slot) {
+        return next[slot];
+    }
+
+    /**
+     * Visit the slots in the same and the eight surrounding cells (wrapping at
+     * the planet edges), own cell first, skipping {@code slot} itself, until
+     * {@code visitor} returns false. Returns false if the visit was stopped.
+     */
+    public boolean forEachNeighbor(int slot, IntPredicate visitor) {
+        int home = cell[slot];
+        int cx = compact(home), cy = compact(home >>> 1);
+        if (!visitCell(home, slot, visitor)) return false;
+        // on grids narrower than 3 the wrapped offsets would repeat cells
+        int lo = side >= 3 ? -1 : 0, hi = side >= 2 ? 1 : 0;
+        for (int dy = lo; dy <= hi; dy++) {
+            for (int dx = lo; dx <= hi; dx++) {
+                if (dx == 0 && dy == 0) continue;
+                int nx = (cx + dx) & (side - 1), ny = (cy + dy) & (side - 1);
+                if (!visitCell(morton(nx, ny), slot, visitor)) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean visitCell(int c, int self, IntPredicate visitor) {
+        for (int s = head[c]; s != NONE; s = next[s]) {
+            if (s != self && !visitor.test(s)) return false;
+        }
+        return true;
+    }
+
+    private int coord(float v) {
+        int i = (int) (v * cellsPerUnit);
+        return Math.floorMod(i, side);
+    }
+
+    // interleave the bits of x (even positions) and y (odd positions)
+    static int morton(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static int spread(int v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    // inverse of spread for the even bits of m
+    private static int compact(int m) {
+        m &= 0x55555555;
+        m = (m | (m >>> 1)) & 0x33333333;
+        m = (m | (m >>> 2)) & 0x0F0F0F0F;
+        m = (m | (m >>> 4)) & 0x00FF00FF;
+        m = (m | (m >>> 8)) & 0x0000FFFF;
+        return m;
+    }
+
+    // --- checkpoints (see Checkpoint) ---
+
+    // geometry and the cell lists as linked, so a restored grid visits in the same order
+    void writeTo(Checkpoint.Out out) {
+        int n = cell.length;
+        out.putFloat(extent).putInt(side).putInt(size).putInts(head, 0, head.length);
+        out.putInt(n).putInts(cell, 0, n).putInts(next, 0, n).putInts(prev, 0, n);
+    }
+
+    // grid over the (restored) store's positions as writeTo wrote it
+    static SpatialGrid readFrom(PopulationStore store, Checkpoint.In in) {
+        float extent = in.getFloat();
+        SpatialGrid grid = new SpatialGrid(store, extent, in.getInt());
+        grid.size = in.getInt();
+        in.getInts(grid.head, grid.head.length);
+        int n = in.getLength(12);
+        grid.cell = new int[n];
+        grid.next = new int[n];
+        grid.prev = new int[n];
+        in.getInts(grid.cell, n);
+        in.getInts(grid.next, n);
+        in.getInts(grid.prev, n);
+        return grid;
+    }
+
+    private void relink(int slot) {
+        int now = cellAt(store.x[slot], store.y[slot]);
+        if (now != cell[slot]) {
+            unlink(slot);
+            link(slot, now);
+        }
+    }
+
+    private void link(int slot, int c) {
+        int first = head[c];
+        next[slot] = first;
+        prev[slot] = NONE;
+        if (first != NONE) prev[first] = slot;
+        head[c] = slot;
+        cell[slot] = c;
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot], n = next[slot];
+        if (p != NONE) next[p] = n; else head[cell[slot]] = n;
+        if (n != NONE) prev[n] = p;
+        cell[slot] = NONE;
+    }
+
+    private int checkedSlot(AICreature c) {
+        if (c.store() != store) throw new IllegalArgumentException("Creature belongs to another population store");
+        return c.slot();
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < cell.length) return;
+        int cap = Math.max(slot + 1, Math.max(16, cell.length * 2));
+        int old = cell.length;
+        cell = Arrays.copyOf(cell, cap);
+        Arrays.fill(cell, old, cap, NONE);
+        next = Arrays.copyOf(next, cap);
+        prev = Arrays.copyOf(prev, cap);
+    }
+}
@@ -0,0 +1,31 @@
+import java.io.PrintStream;
+
+/**
+ * TextEventSink: writes each event's text as soon as it is accepted, on the
+ * caller's thread. This is the behaviour the simulation always had and the
+ * default for demos and one-off runs; see {@link AsyncTextEventSink} for
+ * large populations.
+ */
+public class TextEventSink implements SimulationEventSink {
+    /** Writes to whatever System.out is at the time of each event. */
+    public static final TextEventSink STDOUT = new TextEventSink(null);
+
+    private final PrintStream out;
+
+    /**
+     * @param out target stream, or null for the current System.out
+     */
+    public TextEventSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void accept(SimulationEvent event) {
+        (out != null ? out : System.out).println(event.describe());
+    }
+
+    @Override
+    public void flush() {
+        (out != null ? out : System.out).flush();
+    }
+}
@@ -0,0 +1,537 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
+
+/**
+ * TournamentScheduler: decides who duels whom in a competition round.
+ *
+ * A scheduler hands out the pairings of one generation's tournament round by
+ * round, as pool indices. Modes that {@link Mode#usesRanking() use the
+ * ranking} get the pool as the competition ranking, best first; RANDOM_K and
+ * NEIGHBORHOOD get it in population order, which spares the caller a sort.
+ * No creature appears twice in a round, so a round's duels can run in
+ * parallel. The caller runs the duels of a round, reports each result, and
+ * asks for the next round; creatures that died are skipped by every mode.
+ *
+ * <ul>
+ *   <li>ALL_PAIRS: every unique pair once, as a round robin of n-1 rounds -
+ *       the original competition, O(n^2) duels.</li>
+ *   <li>RANDOM_K: k rounds of random opponents.</li>
+ *   <li>SWISS: k rounds, each pairing creatures with similar results so far
+ *       and avoiding rematches.</li>
+ *   <li>SINGLE_ELIMINATION: seeded bracket (best vs worst), winners advance,
+ *       at most k rounds.</li>
+ *   <li>NEIGHBORHOOD: k rounds, each pairing creatures only with a random
+ *       neighbor in the same or an adjacent {@link SpatialGrid} cell.</li>
+ *   <li>RATED: k rounds, each pairing creatures next to each other in a
+ *       rating-sorted index ({@link LineageRatings}), so most duels are
+ *       between creatures of similar strength and tell the ratings the
+ *       most.</li>
+ * </ul>
+ * {@code matchesPerCreature} (k) caps the number of rounds, and so the
+ * duels of any one creature: every mode except unlimited ALL_PAIRS costs
+ * O(n * k).
+ */
+public abstract class TournamentScheduler {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    /** Result passed to {@link Tournament#recordResult} for a draw. */
+    public static final int DRAW = -1;
+
+    public enum Mode {
+        ALL_PAIRS, RANDOM_K, SWISS, SINGLE_ELIMINATION, NEIGHBORHOOD, RATED;
+
+        /**
+         * Parse a command-line name ("all-pairs", "random-k", "swiss", "elimination", "neighborhood", "rated").
+         */
+        public static Mode parse(String name) {
+            switch (name.toLowerCase().replace('_', '-')) {
+                case "all-pairs": return ALL_PAIRS;
+                case "random-k": return RANDOM_K;
+                case "swiss": return SWISS;
+                case "elimination":
+                case "single-elimination": return SINGLE_ELIMINATION;
+                case "neighborhood": return NEIGHBORHOOD;
+                case "rated": return RATED;
+                default: throw new IllegalArgumentException("Unknown tournament mode: " + name);
+            }
+        }
+
+        /**
+         * True if the pool is handed over in ranking order: all-pairs, whose
+         * pool indices are the ranks reported with each duel, Swiss
+         * standings, the elimination seeding, and rated rounds, whose
+         * shuffle starts from the ranked pool.
+         */
+        public boolean usesRanking() {
+            return this != RANDOM_K && this != NEIGHBORHOOD;
+        }
+    }
+
+    protected final int matchesPerCreature;
+
+    protected TournamentScheduler(int matchesPerCreature) {
+        if (matchesPerCreature < 1) throw new IllegalArgumentException("matchesPerCreature must be >= 1");
+        this.matchesPerCreature = matchesPerCreature;
+    }
+
+    public static TournamentScheduler of(Mode mode, int matchesPerCreature) {
+        switch (mode) {
+            case ALL_PAIRS: return new AllPairs(matchesPerCreature);
+            case RANDOM_K: return new RandomK(matchesPerCreature);
+            case SWISS: return new Swiss(matchesPerCreature);
+            case NEIGHBORHOOD: return new Neighborhood(matchesPerCreature);
+            case RATED: return new Rated(matchesPerCreature);
+            default: return new SingleElimination(matchesPerCreature);
+        }
+    }
+
+    /**
+     * Budget used when none is configured: all-pairs and elimination run to
+     * completion (an elimination bracket needs only log2(n) rounds anyway),
+     * the other modes play {@link #DEFAULT_ROUNDS} rounds.
+     */
+    public static int defaultMatches(Mode mode) {
+        return mode == Mode.ALL_PAIRS || mode == Mode.SINGLE_ELIMINATION ? UNLIMITED : DEFAULT_ROUNDS;
+    }
+
+    public static final int DEFAULT_ROUNDS = 4;
+
+    /** The original competition: every pair fights once. */
+    public static TournamentScheduler allPairs() {
+        return new AllPairs(UNLIMITED);
+    }
+
+    public abstract Mode getMode();
+
+    public int getMatchesPerCreature() {
+        return matchesPerCreature;
+    }
+
+    /**
+     * Start one tournament over a pool of {@code poolSize} creatures.
+     * {@code random} is only drawn from by modes with random pairings.
+     */
+    public abstract Tournament begin(int poolSize, RandomGenerator random);
+
+    /**
+     * Start one tournament over {@code pool}, whose creatures are filed in
+     * {@code grid} (null when the world tracks no positions) and rated in
+     * {@code ratings} (may be null). Only modes that pair by position or by
+     * rating look at the creatures, the grid and the ratings.
+     */
+    public Tournament begin(List<AICreature> pool, SpatialGrid grid, LineageRatings ratings, RandomGenerator random) {
+        return begin(pool.size(), random);
+    }
+
+    @Override
+    public String toString() {
+        return getMode() + (matchesPerCreature == UNLIMITED ? "" : "(k=" + matchesPerCreature + ")");
+    }
+
+    /**
+     * One generation's tournament. Not thread-safe; results of a round must
+     * be recorded before the next round is requested.
+     */
+    public abstract static class Tournament {
+        protected final int poolSize;
+
+        protected Tournament(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        /**
+         * Pairings of the next round as {a0, b0, a1, b1, ...}, each pool index
+         * at most once, or null when the tournament is over. {@code alive}
+         * tells which pool entries can still fight.
+         */
+        public abstract int[] nextRound(IntPredicate alive);
+
+        /**
+         * Report the duel between pool entries {@code a} and {@code b}:
+         * {@code winner} is a, b or {@link #DRAW}.
+         */
+        public void recordResult(int a, int b, int winner) {
+        }
+    }
+
+    private static final class AllPairs extends TournamentScheduler {
+        AllPairs(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.ALL_PAIRS;
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            // circle method: entrant m-1 stays put, the others rotate one step per round;
+            // with an odd pool, m-1 is a phantom and its partner sits the round out
+            int m = poolSize + (poolSize & 1);
+            int rounds = Math.min(matchesPerCreature, m - 1);
+            return new Tournament(poolSize) {
+                private int round;
+
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    while (round < rounds) {
+                        int r = round++;
+                        int[] pairs = new int[m];
+                        int n = 0;
+                        for (int idx = 0; idx < m / 2; idx++) {
+                            int a = idx == 0 ? m - 1 : (r + idx) % (m - 1);
+                            int b = (r - idx + m - 1) % (m - 1);
+                            if (a >= poolSize || !alive.test(a) || !alive.test(b)) continue;
+                            pairs[n++] = Math.min(a, b);
+                            pairs[n++] = Math.max(a, b);
+                        }
+                        if (n > 0) return Arrays.copyOf(pairs, n);
+                    }
+                    return null;
+                }
+            };
+        }
+    }
+
+    private static final class RandomK extends TournamentScheduler {
+        RandomK(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.RANDOM_K;
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            return new Tournament(poolSize) {
+                private int round;
+
+                // each round is a random matching of the living creatures
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    if (round++ >= matchesPerCreature) return null;
+                    int[] order = living(poolSize, alive);
+                    if (order.length < 2) return null;
+                    for (int i = order.length - 1; i > 0; i--) {
+                        int j = random.nextInt(i + 1);
+                        int t = order[i]; order[i] = order[j]; order[j] = t;
+                    }
+                    return Arrays.copyOf(order, order.length & ~1);
+                }
+            };
+        }
+    }
+
+    private static final class Swiss extends TournamentScheduler {
+        // how far down the standings to look for an opponent not met yet
+        private static final int REMATCH_LOOKAHEAD = 8;
+
+        Swiss(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.SWISS;
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            return new Tournament(poolSize) {
+                private final int[] points = new int[poolSize];  // win 2, draw 1
+                private final Set<Long> played = new HashSet<>();
+                private int round;
+
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    if (round++ >= matchesPerCreature) return null;
+                    int[] living = living(poolSize, alive);
+                    if (living.length < 2) return null;
+                    // standings: points desc, then competition rank (pool order)
+                    Integer[] standings = new Integer[living.length];
+                    for (int i = 0; i < living.length; i++) standings[i] = living[i];
+                    Arrays.sort(standings, (x, y) -> points[x] != points[y] ? Integer.compare(points[y], points[x]) : Integer.compare(x, y));
+
+                    boolean[] paired = new boolean[standings.length];
+                    int[] pairs = new int[standings.length & ~1];
+                    int n = 0;
+                    for (int i = 0; i < standings.length && n < pairs.length; i++) {
+                        if (paired[i]) continue;
+                        int first = -1, fresh = -1;
+                        for (int j = i + 1, seen = 0; j < standings.length && seen < REMATCH_LOOKAHEAD; j++) {
+                            if (paired[j]) continue;
+                            if (first < 0) first = j;
+                            if (!played.contains(key(standings[i], standings[j]))) {
+                                fresh = j;
+                                break;
+                            }
+                            seen++;
+                        }
+                        int j = fresh >= 0 ? fresh : first;
+                        if (j < 0) break;
+                        paired[i] = paired[j] = true;
+                        pairs[n++] = standings[i];
+                        pairs[n++] = standings[j];
+                        played.add(key(standings[i], standings[j]));
+                    }
+                    return n == pairs.length ? pairs : Arrays.copyOf(pairs, n);
+                }
+
+                @Override
+                public void recordResult(int a, int b, int winner) {
+                    if (winner == DRAW) {
+                        points[a]++;
+                        points[b]++;
+                    } else {
+                        points[winner] += 2;
+                    }
+                }
+            };
+        }
+
+        private static long key(int a, int b) {
+            return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        }
+    }
+
+    private static final class SingleElimination extends TournamentScheduler {
+        SingleElimination(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.SINGLE_ELIMINATION;
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            return new Tournament(poolSize) {
+                private int[] entrants;       // seeds still in the bracket, best first
+                private int[] lastRound;      // pairs of the previous round
+                private int[] winners;        // winner per pair of lastRound, or DRAW / unset
+                private final int[] matchOf = new int[poolSize];   // pair of lastRound per entrant
+                private int round;
+
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    entrants = entrants == null ? living(poolSize, alive) : advance(alive);
+                    if (entrants.length < 2 || round++ >= matchesPerCreature) return null;
+                    // best seed meets worst seed; the middle seed gets a bye when odd
+                    int half = entrants.length / 2;
+                    int[] pairs = new int[2 * half];
+                    for (int i = 0; i < half; i++) {
+                        pairs[2 * i] = entrants[i];
+                        pairs[2 * i + 1] = entrants[entrants.length - 1 - i];
+                        matchOf[pairs[2 * i]] = i;
+                        matchOf[pairs[2 * i + 1]] = i;
+                    }
+                    lastRound = pairs;
+                    winners = new int[half];
+                    Arrays.fill(winners, Integer.MIN_VALUE);
+                    return pairs;
+                }
+
+                @Override
+                public void recordResult(int a, int b, int winner) {
+                    // entries of creatures out of this round are stale; the pair check catches them
+                    int i = matchOf[a];
+                    if (i < winners.length && lastRound[2 * i] == a && lastRound[2 * i + 1] == b) winners[i] = winner;
+                }
+
+                // winners of the last round plus the bye, kept in seed order
+                private int[] advance(IntPredicate alive) {
+                    int[] next = new int[winners.length + 1];
+                    int n = 0;
+                    for (int i = 0; i < winners.length; i++) {
+                        int a = lastRound[2 * i], b = lastRound[2 * i + 1];
+                        int w = winners[i];
+                        if (w == DRAW || w == Integer.MIN_VALUE) {
+                            // draw, or not fought because one side was dead: the better living seed goes on
+                            w = alive.test(a) ? a : (alive.test(b) ? b : -1);
+                        }
+                        if (w >= 0 && alive.test(w)) next[n++] = w;
+                    }
+                    if ((entrants.length & 1) == 1) {
+                        int bye = entrants[entrants.length / 2];
+                        if (alive.test(bye)) next[n++] = bye;
+                    }
+                    int[] seeds = Arrays.copyOf(next, n);
+                    Arrays.sort(seeds);
+                    return seeds;
+                }
+            };
+        }
+    }
+
+    private static final class Neighborhood extends TournamentScheduler {
+        // neighbors sampled per creature; bounds the work in crowded cells
+        private static final int CANDIDATES = 8;
+
+        Neighborhood(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.NEIGHBORHOOD;
+        }
+
+        // neighbor visitor of one tournament: collects up to CANDIDATES unpaired,
+        // living neighbors, reused for every creature so a round allocates none
+        private static final class Candidates implements IntPredicate {
+            private final int[] bySlot;   // pool index by store slot, -1 when not an entrant
+            final int[] picks = new int[CANDIDATES];
+            int found;
+            private boolean[] paired;
+            private IntPredicate alive;
+
+            Candidates(int[] bySlot) {
+                this.bySlot = bySlot;
+            }
+
+            void startRound(boolean[] paired, IntPredicate alive) {
+                this.paired = paired;
+                this.alive = alive;
+            }
+
+            int poolIndex(int slot) {
+                return slot < bySlot.length ? bySlot[slot] : -1;
+            }
+
+            @Override
+            public boolean test(int slot) {
+                int j = poolIndex(slot);
+                if (j >= 0 && !paired[j] && alive.test(j)) picks[found++] = j;
+                return found < CANDIDATES;
+            }
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            throw new IllegalStateException("Neighborhood tournaments need creature positions (a SpatialGrid)");
+        }
+
+        @Override
+        public Tournament begin(List<AICreature> pool, SpatialGrid grid, LineageRatings ratings, RandomGenerator random) {
+            if (grid == null) return begin(pool.size(), random);
+            // pool index by store slot; newborns that reuse a dead entrant's slot fail the alive test
+            int[] poolIndex = new int[0];
+            for (int i = 0; i < pool.size(); i++) {
+                int slot = pool.get(i).slot();
+                if (slot >= poolIndex.length) {
+                    int old = poolIndex.length;
+                    poolIndex = Arrays.copyOf(poolIndex, Math.max(slot + 1, old * 2));
+                    Arrays.fill(poolIndex, old, poolIndex.length, -1);
+                }
+                poolIndex[slot] = i;
+            }
+            Candidates candidates = new Candidates(poolIndex);
+            return new Tournament(pool.size()) {
+                private int round;
+
+                // walk the cells in Morton order; pair each free creature with a random free neighbor
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    if (round++ >= matchesPerCreature) return null;
+                    boolean[] paired = new boolean[poolSize];
+                    int[] pairs = new int[poolSize & ~1];
+                    candidates.startRound(paired, alive);
+                    int n = 0;
+                    for (int c = 0; c < grid.cellCount(); c++) {
+                        for (int slot = grid.firstInCell(c); slot >= 0; slot = grid.nextInCell(slot)) {
+                            int i = candidates.poolIndex(slot);
+                            if (i < 0 || paired[i] || !alive.test(i)) continue;
+                            candidates.found = 0;
+                            grid.forEachNeighbor(slot, candidates);
+                            if (candidates.found == 0) continue;
+                            int j = candidates.picks[random.nextInt(candidates.found)];
+                            paired[i] = paired[j] = true;
+                            pairs[n++] = Math.min(i, j);
+                            pairs[n++] = Math.max(i, j);
+                        }
+                    }
+                    return n == 0 ? null : Arrays.copyOf(pairs, n);
+                }
+            };
+        }
+    }
+
+    private static final class Rated extends TournamentScheduler {
+        // widest rating gap one pairing may span; the lower creature of a wider gap sits the round out
+        private static final double WINDOW = 200;
+
+        Rated(int matchesPerCreature) {
+            super(matchesPerCreature);
+        }
+
+        @Override
+        public Mode getMode() {
+            return Mode.RATED;
+        }
+
+        @Override
+        public Tournament begin(int poolSize, RandomGenerator random) {
+            throw new IllegalStateException("Rated tournaments need lineage ratings");
+        }
+
+        @Override
+        public Tournament begin(List<AICreature> pool, SpatialGrid grid, LineageRatings ratings, RandomGenerator random) {
+            if (ratings == null) return begin(pool.size(), random);
+            int[] lineage = new int[pool.size()];
+            for (int i = 0; i < lineage.length; i++) lineage[i] = pool.get(i).getLineageId();
+            return new Tournament(pool.size()) {
+                private int round;
+
+                // ratings are read again every round, so each round pairs on the results so far
+                @Override
+                public int[] nextRound(IntPredicate alive) {
+                    int r = round++;
+                    if (r >= matchesPerCreature) return null;
+                    int[] living = living(poolSize, alive);
+                    if (living.length < 2) return null;
+                    // sorted index on (whole rating points, random tie-break): shuffle, then
+                    // sort keys of rating << 32 | shuffled position
+                    for (int i = living.length - 1; i > 0; i--) {
+                        int j = random.nextInt(i + 1);
+                        int t = living[i]; living[i] = living[j]; living[j] = t;
+                    }
+                    long[] keys = new long[living.length];
+                    for (int i = 0; i < living.length; i++) {
+                        keys[i] = ((long) (int) Math.floor(ratings.rating(lineage[living[i]])) << 32) | i;
+                    }
+                    Arrays.sort(keys);
+
+                    // pair neighbors in the index; odd rounds start one place up so pairings shift
+                    int[] pairs = new int[living.length & ~1];
+                    int n = 0;
+                    for (int i = r & 1; i + 1 < keys.length; ) {
+                        int a = living[(int) keys[i]], b = living[(int) keys[i + 1]];
+                        if (ratings.rating(lineage[b]) - ratings.rating(lineage[a]) > WINDOW) {
+                            i++;
+                            continue;
+                        }
+                        pairs[n++] = Math.min(a, b);
+                        pairs[n++] = Math.max(a, b);
+                        i += 2;
+                    }
+                    return n == 0 ? null : Arrays.copyOf(pairs, n);
+                }
+            };
+        }
+    }
+
+    private static int[] living(int poolSize, IntPredicate alive) {
+        int[] out = new int[poolSize];
+        int n = 0;
+        for (int i = 0; i < poolSize; i++) if (alive.test(i)) out[n++] = i;
+        return n == poolSize ? out : Arrays.copyOf(out, n);
+    }
+}
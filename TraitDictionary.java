@@ -0,0 +1,64 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TraitDictionary: global intern table mapping trait strings to small int ids.
+ *
+ * Ids are dense (0, 1, 2, ...) and never reused, so they can index bitsets
+ * ({@link TraitSet}) and per-trait lookup arrays. Lookups are lock-free; only
+ * registering a trait that has never been seen takes the lock.
+ */
+public final class TraitDictionary {
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static volatile int size = 0;
+
+    private TraitDictionary() {
+    }
+
+    /**
+     * Return the id for a trait, registering it on first use.
+     */
+    public static int intern(String trait) {
+        Integer id = IDS.get(trait);
+        if (id != null) return id;
+        return register(trait);
+    }
+
+    /**
+     * Return the id for a trait, or -1 if the trait has never been interned.
+     */
+    public static int lookup(String trait) {
+        Integer id = IDS.get(trait);
+        return id == null ? -1 : id;
+    }
+
+    public static String name(int id) {
+        if (id < 0 || id >= size) throw new IllegalArgumentException("Unknown trait id: " + id);
+        return names[id];
+    }
+
+    /**
+     * Number of traits interned so far (ids are in [0, size)).
+     */
+    public static int size() {
+        return size;
+    }
+
+    private static synchronized int register(String trait) {
+        if (trait == null) throw new IllegalArgumentException("Trait must not be null");
+        Integer existing = IDS.get(trait);
+        if (existing != null) return existing;
+
+        int id = size;
+        String[] current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = trait;
+        names = current;
+        size = id + 1;
+        IDS.put(trait, id);
+        return id;
+    }
+}
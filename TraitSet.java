@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * TraitSet: compact bitset of trait ids from {@link TraitDictionary}.
+ *
+ * Membership, union and "missing required traits" are word-wise bit
+ * operations instead of string hashing. Instances are mutable; callers that
+ * receive a creature's set must treat it as read-only.
+ */
+public final class TraitSet {
+    private long[] words;
+
+    public TraitSet() {
+        this.words = new long[1];
+    }
+
+    private TraitSet(long[] words) {
+        this.words = words;
+    }
+
+    public static TraitSet of(String... traits) {
+        TraitSet set = new TraitSet();
+        for (String t : traits) set.add(TraitDictionary.intern(t));
+        return set;
+    }
+
+    public boolean contains(int id) {
+        int w = id >>> 6;
+        return w < words.length && (words[w] & (1L << id)) != 0;
+    }
+
+    /**
+     * String membership test; traits that were never interned are never present.
+     */
+    public boolean contains(String trait) {
+        int id = TraitDictionary.lookup(trait);
+        return id >= 0 && contains(id);
+    }
+
+    public void add(int id) {
+        int w = id >>> 6;
+        if (w >= words.length) words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+        words[w] |= 1L << id;
+    }
+
+    public void remove(int id) {
+        int w = id >>> 6;
+        if (w < words.length) words[w] &= ~(1L << id);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    public boolean isEmpty() {
+        for (long w : words) if (w != 0) return false;
+        return true;
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (long w : words) n += Long.bitCount(w);
+        return n;
+    }
+
+    /**
+     * Union in place: this |= other.
+     */
+    public void or(TraitSet other) {
+        if (other.words.length > words.length) words = Arrays.copyOf(words, other.words.length);
+        for (int i = 0; i < other.words.length; i++) words[i] |= other.words[i];
+    }
+
+    /**
+     * True if every trait of {@code other} is present in this set.
+     */
+    public boolean containsAll(TraitSet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            if ((other.words[i] & ~mine) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Number of traits present in both sets.
+     */
+    public int countCommon(TraitSet other) {
+        int n = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < n; i++) count += Long.bitCount(words[i] & other.words[i]);
+        return count;
+    }
+
+    /**
+     * Number of traits in {@code required} that are absent from this set.
+     */
+    public int countMissing(TraitSet required) {
+        int count = 0;
+        for (int i = 0; i < required.words.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            count += Long.bitCount(required.words[i] & ~mine);
+        }
+        return count;
+    }
+
+    /**
+     * New set holding the traits of {@code required} that are absent from this set.
+     */
+    public TraitSet missingFrom(TraitSet required) {
+        long[] out = new long[required.words.length];
+        for (int i = 0; i < out.length; i++) {
+            long mine = i < words.length ? words[i] : 0L;
+            out[i] = required.words[i] & ~mine;
+        }
+        return new TraitSet(out);
+    }
+
+    public TraitSet copy() {
+        return new TraitSet(words.clone());
+    }
+
+    /**
+     * Id of the next present trait at or after {@code from}, or -1.
+     */
+    public int nextSetBit(int from) {
+        int w = from >>> 6;
+        if (w >= words.length) return -1;
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == words.length) return -1;
+            word = words[w];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TraitSet)) return false;
+        long[] a = words;
+        long[] b = ((TraitSet) o).words;
+        int n = Math.max(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            long x = i < a.length ? a[i] : 0L;
+            long y = i < b.length ? b[i] : 0L;
+            if (x != y) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = 1234;
+        for (int i = words.length; --i >= 0; ) h ^= words[i] * (i + 1);
+        return (int) ((h >> 32) ^ h);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int id = nextSetBit(0); id >= 0; id = nextSetBit(id + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(TraitDictionary.name(id));
+        }
+        return sb.append(']').toString();
+    }
+}
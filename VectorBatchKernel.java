@@ -0,0 +1,46 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorBatchKernel: BatchScorer arithmetic on the preferred int vector
+ * species. Needs {@code --add-modules jdk.incubator.vector} at compile and
+ * run time; BatchScorer loads it reflectively and falls back to its scalar
+ * loops when the module is missing.
+ */
+final class VectorBatchKernel implements BatchScorer.Kernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    // n / 10 == (n * 52429) >>> 19 for 0 <= n < 81920, so health + 5 must stay below that
+    private static final int MAX_FAST_HEALTH = 81920 - 6;
+
+    @Override
+    public void combat(int[] traitScore, int[] health, int[] out, int n) {
+        int i = 0;
+        for (int upper = SPECIES.loopBound(n); i < upper; i += SPECIES.length()) {
+            IntVector h = IntVector.fromArray(SPECIES, health, i);
+            VectorMask<Integer> outOfRange = h.compare(VectorOperators.LT, 0)
+                    .or(h.compare(VectorOperators.GT, MAX_FAST_HEALTH));
+            if (outOfRange.anyTrue()) {
+                BatchScorer.combatRange(traitScore, health, out, i, i + SPECIES.length());
+                continue;
+            }
+            IntVector tenths = h.add(5).mul(52429).lanewise(VectorOperators.LSHR, 19);
+            IntVector.fromArray(SPECIES, traitScore, i).add(tenths).intoArray(out, i);
+        }
+        BatchScorer.combatRange(traitScore, health, out, i, n);
+    }
+
+    @Override
+    public void competition(int[] health, int[] matches, int[] mutations, int[] bonus, int[] out, int n) {
+        int i = 0;
+        for (int upper = SPECIES.loopBound(n); i < upper; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, health, i)
+                    .add(IntVector.fromArray(SPECIES, matches, i).mul(BatchScorer.MATCH_WEIGHT))
+                    .add(IntVector.fromArray(SPECIES, mutations, i).mul(BatchScorer.MUTATION_WEIGHT))
+                    .add(IntVector.fromArray(SPECIES, bonus, i))
+                    .intoArray(out, i);
+        }
+        BatchScorer.competitionRange(health, matches, mutations, bonus, out, i, n);
+    }
+}
@@ -0,0 +1,373 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * SimulationWorkloads: fixtures for the JMH benchmarks in planetexplore.jmh.
+ *
+ * The simulation lives in the default package, which classes in a named
+ * package (and JMH requires one) cannot reference. This class sits on the
+ * default-package side and hands each benchmark a ready-to-run operation as
+ * a plain {@link IntSupplier}; the benchmark looks it up once per iteration
+ * (see planetexplore.jmh.Workloads) and then only calls getAsInt().
+ *
+ * Every workload is built from a fixed seed and reports through
+ * {@link SimulationEventSink#NONE}, so nothing is printed while measuring.
+ */
+public final class SimulationWorkloads {
+    private static final String[] PLANETS = {"Lava", "Ice", "Desert", "Ocean", "Forest", "Swamp", "Mountain"};
+    private static final String[] ATMOSPHERES = {"Oxygen-rich", "Nitrogen", "Methane", "Carbon monoxide"};
+    private static final String[] EXTRA_TRAITS = {
+        "level:1", "level:3", "level:5", "speed:low", "speed:medium", "speed:fast", "agile", "adaptive",
+        "resilient", "quick-learner", "strong-sense", "fragile", "slow-reaction", "weak-sense"
+    };
+
+    private SimulationWorkloads() {
+    }
+
+    /**
+     * Build the named workload over {@code size} creatures (or mesh segments).
+     */
+    public static IntSupplier create(String name, int size, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        switch (name) {
+            case "computeScore": {
+                AICreature[] creatures = creatures(new PopulationStore(size), size, random);
+                int[] next = {0};
+                return () -> CombatSystem.computeScore(creatures[next[0]++ % creatures.length]);
+            }
+            case "traitScoreLegacy":
+            case "traitScoreRules": {
+                // trait part of computeScore without the per-creature cache: the
+                // original if/else chain over attribute strings vs the compiled rules
+                AICreature[] creatures = creatures(new PopulationStore(size), size, random);
+                String[][] names = new String[size][];
+                int[][] ids = new int[size][];
+                CombatRules rules = CombatSystem.getRules();
+                for (int i = 0; i < size; i++) {
+                    names[i] = creatures[i].getAttributes().clone();
+                    ids[i] = new int[creatures[i].getTraitCount()];
+                    for (int t = 0; t < ids[i].length; t++) ids[i][t] = creatures[i].getTraitId(t);
+                    if (legacyTraitScore(names[i]) != rules.score(ids[i], ids[i].length)) {
+                        throw new IllegalStateException("Combat rules disagree with the original scoring for " + Arrays.toString(names[i]));
+                    }
+                }
+                int[] next = {0};
+                if (name.equals("traitScoreLegacy")) return () -> legacyTraitScore(names[next[0]++ % size]);
+                return () -> {
+                    int[] t = ids[next[0]++ % size];
+                    return rules.score(t, t.length);
+                };
+            }
+            case "scorePopulation:perCreature":
+            case "scorePopulation:scalar":
+            case "scorePopulation:vector": {
+                // combat and competition score of every creature: one call per
+                // creature vs one BatchScorer pass over the columns
+                PopulationStore store = new PopulationStore(size);
+                AICreature[] creatures = creatures(store, size, random);
+                TraitSet required = TraitSet.of("heat resistance", "swimming", "agile");
+                BatchScorer batch = name.endsWith("vector") ? new BatchScorer(store) : BatchScorer.scalar(store);
+                if (name.endsWith("vector") && !batch.isVectorized()) {
+                    throw new IllegalStateException("jdk.incubator.vector is not available; run with --add-modules jdk.incubator.vector");
+                }
+                int[][] out = {batch.combatScores(null), batch.competitionScores(required, null)};
+                for (AICreature c : creatures) {
+                    if (out[0][c.slot()] != CombatSystem.computeScore(c) || out[1][c.slot()] != PlanetGenerator.computeCompetitionScore(c, required)) {
+                        throw new IllegalStateException("Batch scores disagree with the per-creature scores");
+                    }
+                }
+                if (name.endsWith("perCreature")) {
+                    return () -> {
+                        int sum = 0;
+                        for (AICreature c : creatures) {
+                            out[0][c.slot()] = CombatSystem.computeScore(c);
+                            out[1][c.slot()] = PlanetGenerator.computeCompetitionScore(c, required);
+                            sum += out[1][c.slot()];
+                        }
+                        return sum;
+                    };
+                }
+                return () -> {
+                    out[0] = batch.combatScores(out[0]);
+                    out[1] = batch.competitionScores(required, out[1]);
+                    return out[1][size - 1];
+                };
+            }
+            case "duel": {
+                AICreature[] creatures = creatures(new PopulationStore(size), size, random);
+                int[] next = {0};
+                return () -> {
+                    int i = next[0]++;
+                    AICreature a = creatures[i % creatures.length];
+                    AICreature b = creatures[(i * 7 + 1) % creatures.length];
+                    a.heal(100);   // keep both fighting at full health
+                    b.heal(100);
+                    return CombatSystem.duel(a, b, random).damageDealtToLoser;
+                };
+            }
+            case "tickAndMaybeMutate": {
+                AICreature[] creatures = creatures(new PopulationStore(size), size, random);
+                EnvironmentProfile environment = EnvironmentProfile.of("Ocean", "Methane");
+                int[] next = {0};
+                return () -> {
+                    AICreature c = creatures[next[0]++ % creatures.length];
+                    c.tickAndMaybeMutate(random, environment, MutationEngine.QUIET);
+                    return c.getTraitCount();
+                };
+            }
+            case "updateCreatures": {
+                List<AICreature> population = new ArrayList<>();
+                for (AICreature c : creatures(new PopulationStore(size), size, random)) population.add(c);
+                CreatureEvolutionManager manager = new CreatureEvolutionManager(random);
+                manager.setEventSink(SimulationEventSink.NONE);
+                return () -> {
+                    manager.updateCreatures(population);
+                    return population.size();
+                };
+            }
+            case "updatePopulation:sequential":
+            case "updatePopulation:parallel": {
+                // the seeded store-backed update a generation runs, one seed per call
+                PopulationStore store = new PopulationStore(size);
+                List<AICreature> population = new ArrayList<>();
+                for (AICreature c : creatures(store, size, random)) population.add(c);
+                CreatureEvolutionManager manager = new CreatureEvolutionManager(random);
+                manager.setEventSink(SimulationEventSink.NONE);
+                manager.setParallel(name.endsWith("parallel"));
+                SeedTree seeds = new SeedTree(seed);
+                int[] generation = {0};
+                return () -> {
+                    manager.updatePopulation(store, population, "Ocean", "Methane", seeds.generation(++generation[0]));
+                    return population.size();
+                };
+            }
+            case "reproduce:tournament":
+            case "reproduce:roulette": {
+                // one steady-state step: score, breed, replace the victims with their offspring
+                PopulationStore store = new PopulationStore(size);
+                Population population = new Population(store, size);
+                for (AICreature c : creatures(store, size, random)) population.add(c);
+                ReproductionEngine engine = new ReproductionEngine(ReproductionEngine.Selection.parse(name.substring(name.indexOf(':') + 1)));
+                BatchScorer scorer = new BatchScorer(store);
+                TraitSet required = TraitSet.of("heat resistance", "swimming", "agile");
+                SeedTree seeds = new SeedTree(seed);
+                int[][] scores = {null};
+                int[] generation = {0};
+                return () -> {
+                    scores[0] = scorer.competitionScores(required, scores[0]);
+                    ReproductionEngine.Brood brood = engine.breed(population, scores[0], seeds.generation(++generation[0]));
+                    for (int i = 0; i < brood.size(); i++) {
+                        AICreature victim = brood.victim(i);
+                        population.markDead(victim);
+                        store.release(victim);
+                        population.add(brood.hatch(i, store));
+                    }
+                    population.compact();
+                    return brood.size();
+                };
+            }
+            case "generation":
+            case "generationWithDuels":
+            case "generationWithTournament:random-k":
+            case "generationWithTournament:swiss":
+            case "generationWithTournament:elimination":
+            case "generationWithTournament:neighborhood":
+            case "generationWithTournament:rated": {
+                PlanetGenerator world = new PlanetGenerator(new SeedTree(seed), new FossilRecord(tempDir()));
+                world.setEventSink(SimulationEventSink.NONE);
+                world.setNumCompetitors(size);
+                world.setCompetitionEnabled(!name.equals("generation"));
+                if (name.startsWith("generationWithTournament:")) {
+                    TournamentScheduler.Mode mode = TournamentScheduler.Mode.parse(name.substring(name.indexOf(':') + 1));
+                    world.setTournamentScheduler(TournamentScheduler.of(mode, TournamentScheduler.defaultMatches(mode)));
+                }
+                world.generatePlanetAndCreature();
+                return () -> {
+                    world.runEvolutionSimulation(1);
+                    return world.getCreatures().size();
+                };
+            }
+            case "checkpoint:save":
+            case "checkpoint:restore": {
+                // a world after one generation with a random-k round, saved to or restored from a checkpoint
+                FossilRecord fossils = new FossilRecord(tempDir());
+                PlanetGenerator world = new PlanetGenerator(new SeedTree(seed), fossils);
+                world.setEventSink(SimulationEventSink.NONE);
+                world.setNumCompetitors(size);
+                TournamentScheduler.Mode mode = TournamentScheduler.Mode.RANDOM_K;
+                world.setTournamentScheduler(TournamentScheduler.of(mode, TournamentScheduler.defaultMatches(mode)));
+                world.generatePlanetAndCreature();
+                world.runEvolutionSimulation(1);
+                Path file = world.checkpointFile();
+                file.toFile().deleteOnExit();
+                world.saveCheckpoint(file);
+                if (name.equals("checkpoint:save")) {
+                    return () -> {
+                        try {
+                            world.saveCheckpoint(file);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return world.getCreatures().size();
+                    };
+                }
+                return () -> {
+                    try {
+                        return PlanetGenerator.restoreCheckpoint(file, fossils).getCreatures().size();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+            }
+            case "gridMove":
+            case "gridNeighbors": {
+                // bare creatures scattered over the planet, filed in a grid sized for them
+                float extent = 1000f;
+                PopulationStore store = new PopulationStore(size);
+                SpatialGrid grid = SpatialGrid.forPopulation(store, extent, size);
+                AICreature.Locomotion[] modes = AICreature.Locomotion.values();
+                String[] traits = {"agile"};
+                int[] slots = new int[size];
+                for (int i = 0; i < size; i++) {
+                    AICreature c = new AICreature(store, traits);
+                    c.setLocomotion(modes[i % modes.length]);
+                    c.setPosition(random.nextFloat() * extent, random.nextFloat() * extent);
+                    grid.add(c);
+                    slots[i] = c.slot();
+                }
+                if (name.equals("gridMove")) {
+                    // one movement tick of the whole population plus the incremental re-filing
+                    return () -> {
+                        store.moveAll(random, extent);
+                        grid.update();
+                        return grid.size();
+                    };
+                }
+                int[] next = {0};
+                int[] count = {0};
+                return () -> {
+                    count[0] = 0;
+                    grid.forEachNeighbor(slots[next[0]++ % size], s -> {
+                        count[0]++;
+                        return true;
+                    });
+                    return count[0];
+                };
+            }
+            case "saveFossil": {
+                FossilRecord fossils = new FossilRecord(tempDir());
+                AICreature[] creatures = creatures(new PopulationStore(size), size, random);
+                int[] next = {0};
+                return () -> {
+                    AICreature c = creatures[next[0]++ % creatures.length];
+                    fossils.save(c, "Benchmark-1", "Ocean", "Methane", SimulationEvent.CAUSE_CRISIS);
+                    return c.getAge();
+                };
+            }
+            case "scanDuelLog": {
+                // post-run analysis: wins per lineage over a log of `size` duels
+                Path dir = tempDir().toPath();
+                try (DuelLog log = DuelLog.open(dir)) {
+                    for (int i = 0; i < size; i++) {
+                        int flags = random.nextInt(10) == 0 ? DuelLog.DRAW : random.nextBoolean() ? DuelLog.A_WON : 0;
+                        log.append(i / 1000, i % 8, random.nextInt(4096), random.nextInt(4096), random.nextInt(200), random.nextInt(200), random.nextInt(40), flags);
+                    }
+                }
+                int[] wins = new int[4096];
+                return () -> {
+                    int n = 0;
+                    try (DuelLog.Cursor c = DuelLog.read(dir)) {
+                        while (c.next()) {
+                            int w = c.winnerLineage();
+                            if (w >= 0) wins[w]++;
+                            n++;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return n;
+                };
+            }
+            case "exportToOBJ": {
+                PopulationStore store = new PopulationStore(size);
+                AdvancedAICreature[] creatures = new AdvancedAICreature[size];
+                AICreature.Locomotion[] modes = AICreature.Locomotion.values();
+                for (int i = 0; i < size; i++) {
+                    creatures[i] = new AdvancedAICreature(store, random, modes[i % modes.length], "Scales", "Blue", "Torpedo",
+                            5 + random.nextDouble(80), 0.3 + random.nextDouble(2), traits(random));
+                }
+                int[] next = {0};
+                return () -> Creature3DExporter.exportToOBJ(creatures[next[0]++ % creatures.length]).length();
+            }
+            case "generateSphereMesh":
+                return () -> MeshGenerator.generateSphereMesh(1.0f, size).length;
+            default:
+                throw new IllegalArgumentException("Unknown workload: " + name);
+        }
+    }
+
+    /** CombatSystem's trait scoring before it moved to CombatRules, kept as the benchmark baseline. */
+    private static int legacyTraitScore(String[] attrs) {
+        double score = 0.0;
+        for (String a : attrs) {
+            if (a == null) continue;
+            String lower = a.toLowerCase();
+
+            if (lower.startsWith("level:")) {
+                try {
+                    int lvl = Integer.parseInt(lower.split(":")[1]);
+                    score += lvl * 10;
+                } catch (Exception e) {
+                    score += 5;
+                }
+            } else if (lower.startsWith("speed:")) {
+                if (lower.contains("fast")) score += 6;
+                else if (lower.contains("medium")) score += 3;
+                else score += 1;
+            } else if (lower.contains("agile")) score += 4;
+            else if (lower.contains("adaptive")) score += 3;
+            else if (lower.contains("resilient")) score += 3;
+            else if (lower.contains("quick-learner")) score += 2;
+            else if (lower.contains("strong-sense") || lower.contains("perception")) score += 2;
+            else if (lower.contains("fragile")) score -= 4;
+            else if (lower.contains("slow-reaction")) score -= 3;
+            else if (lower.contains("weak-sense")) score -= 2;
+            else if (lower.contains("heat resistance") || lower.contains("cold resistance") || lower.contains("swimming")
+                    || lower.contains("water conservation") || lower.contains("toxic resistance") || lower.contains("methane breather")
+                    || lower.contains("nitrogen tolerance") || lower.contains("high endurance")) {
+                score += 3;
+            }
+        }
+        return (int) score;
+    }
+
+    private static AICreature[] creatures(PopulationStore store, int count, SplittableRandom random) {
+        AICreature[] creatures = new AICreature[count];
+        for (int i = 0; i < count; i++) creatures[i] = new AICreature(store, traits(random));
+        return creatures;
+    }
+
+    /** Planet baseline traits plus two random extras, like a spawned competitor that has evolved a little. */
+    private static String[] traits(SplittableRandom random) {
+        String[] base = EnvironmentProfile.of(PLANETS[random.nextInt(PLANETS.length)],
+                ATMOSPHERES[random.nextInt(ATMOSPHERES.length)]).newBaselineAttributes();
+        String[] traits = Arrays.copyOf(base, base.length + 2);
+        traits[base.length] = EXTRA_TRAITS[random.nextInt(EXTRA_TRAITS.length)];
+        traits[base.length + 1] = EXTRA_TRAITS[random.nextInt(EXTRA_TRAITS.length)];
+        return traits;
+    }
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("planetexplore-bench").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+}
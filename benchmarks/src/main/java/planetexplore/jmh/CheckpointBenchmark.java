@@ -0,0 +1,49 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a whole world to a checkpoint file (PlanetGenerator.saveCheckpoint,
+ * forced to disk) and rebuilding one from it (restoreCheckpoint). Average
+ * time per checkpoint, to set against the generation benchmarks in
+ * EvolutionBenchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckpointBenchmark {
+    @Param({"100000", "1000000"})
+    public int population;
+
+    @Param({"save", "restore"})
+    public String operation;
+
+    private IntSupplier workload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workloads.create("checkpoint:" + operation, population);
+    }
+
+    @Benchmark
+    public int checkpoint() {
+        return workload.getAsInt();
+    }
+}
@@ -0,0 +1,67 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CombatSystem.computeScore and CombatSystem.duel over a fixed roster of
+ * creatures with planet baseline traits plus a few evolved ones, and the
+ * uncached trait scoring: compiled CombatRules against the original
+ * string-matching chain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombatBenchmark {
+    @Param({"1024"})
+    public int roster;
+
+    private IntSupplier computeScore;
+    private IntSupplier duel;
+    private IntSupplier traitScoreLegacy;
+    private IntSupplier traitScoreRules;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        computeScore = Workloads.create("computeScore", roster);
+        duel = Workloads.create("duel", roster);
+        traitScoreLegacy = Workloads.create("traitScoreLegacy", roster);
+        traitScoreRules = Workloads.create("traitScoreRules", roster);
+    }
+
+    @Benchmark
+    public int computeScore() {
+        return computeScore.getAsInt();
+    }
+
+    @Benchmark
+    public int duel() {
+        return duel.getAsInt();
+    }
+
+    @Benchmark
+    public int traitScoreLegacy() {
+        return traitScoreLegacy.getAsInt();
+    }
+
+    @Benchmark
+    public int traitScoreRules() {
+        return traitScoreRules.getAsInt();
+    }
+}
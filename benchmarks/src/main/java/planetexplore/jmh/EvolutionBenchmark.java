@@ -0,0 +1,163 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-creature and per-population evolution: one AICreature tick, one
+ * CreatureEvolutionManager.updateCreatures or updatePopulation pass, and
+ * one generation of PlanetGenerator.runEvolutionSimulation.
+ *
+ * Workloads are rebuilt every iteration because physical mutations keep
+ * appending traits, so a long-lived population would slowly get heavier.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvolutionBenchmark {
+
+    @State(Scope.Thread)
+    public static class Tick {
+        @Param({"10", "1000", "100000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("tickAndMaybeMutate", population);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Update {
+        @Param({"10", "1000", "100000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("updateCreatures", population);
+        }
+    }
+
+    /**
+     * The seeded, partitioned update of a whole population, with the
+     * partitions run one after the other or on the fork-join pool.
+     */
+    @State(Scope.Thread)
+    public static class PopulationUpdate {
+        @Param({"100000", "1000000"})
+        public int population;
+
+        @Param({"sequential", "parallel"})
+        public String mode;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("updatePopulation:" + mode, population);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Generation {
+        @Param({"10", "1000", "100000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("generation", population);
+        }
+    }
+
+    /**
+     * Generation including the all-pairs duel round. Pairings grow with the
+     * square of the population, so the default sizes stop at 1000; pass
+     * -p population=100000 to include it.
+     */
+    @State(Scope.Thread)
+    public static class GenerationWithDuels {
+        @Param({"10", "1000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("generationWithDuels", population);
+        }
+    }
+
+    /**
+     * Generation with a linear tournament (default matches per creature)
+     * instead of all pairs, up to 100k creatures.
+     */
+    @State(Scope.Thread)
+    public static class GenerationWithTournament {
+        @Param({"1000", "100000"})
+        public int population;
+
+        @Param({"random-k", "swiss", "elimination", "neighborhood", "rated"})
+        public String tournament;
+
+        IntSupplier workload;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            workload = Workloads.create("generationWithTournament:" + tournament, population);
+        }
+    }
+
+    @Benchmark
+    public int tickAndMaybeMutate(Tick state) {
+        return state.workload.getAsInt();
+    }
+
+    @Benchmark
+    public int updateCreatures(Update state) {
+        return state.workload.getAsInt();
+    }
+
+    @Benchmark
+    public int updatePopulation(PopulationUpdate state) {
+        return state.workload.getAsInt();
+    }
+
+    /** One generation without the competition round (crisis, mutation, healing, reports). */
+    @Benchmark
+    public int generation(Generation state) {
+        return state.workload.getAsInt();
+    }
+
+    /** One generation including the competition ranking and duels. */
+    @Benchmark
+    public int generationWithDuels(GenerationWithDuels state) {
+        return state.workload.getAsInt();
+    }
+
+    /** One generation with a random-k, Swiss, elimination, neighborhood or rated competition round. */
+    @Benchmark
+    public int generationWithTournament(GenerationWithTournament state) {
+        return state.workload.getAsInt();
+    }
+}
@@ -0,0 +1,85 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Output paths: FossilRecord.saveFossil (appends to files in a temp
+ * directory), Creature3DExporter.exportToOBJ and MeshGenerator.generateSphereMesh,
+ * plus reading back a DuelLog of one million duels.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExportBenchmark {
+    private IntSupplier saveFossil;
+    private IntSupplier exportToObj;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        saveFossil = Workloads.create("saveFossil", 256);
+        exportToObj = Workloads.create("exportToOBJ", 256);
+    }
+
+    @State(Scope.Thread)
+    public static class Sphere {
+        @Param({"16", "64"})
+        public int segments;
+
+        IntSupplier mesh;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            mesh = Workloads.create("generateSphereMesh", segments);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DuelHistory {
+        @Param({"1000000"})
+        public int duels;
+
+        IntSupplier scan;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scan = Workloads.create("scanDuelLog", duels);
+        }
+    }
+
+    @Benchmark
+    public int saveFossil() {
+        return saveFossil.getAsInt();
+    }
+
+    @Benchmark
+    public int exportToOBJ() {
+        return exportToObj.getAsInt();
+    }
+
+    @Benchmark
+    public int generateSphereMesh(Sphere state) {
+        return state.mesh.getAsInt();
+    }
+
+    @Benchmark
+    public int scanDuelLog(DuelHistory state) {
+        return state.scan.getAsInt();
+    }
+}
@@ -0,0 +1,49 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One steady-state reproduction step over a whole population: competition
+ * scores, ReproductionEngine.breed with tournament or roulette selection
+ * (default replacement rate), and hatching the offspring into the victims'
+ * slots. Average time per step, i.e. the breeding share of a generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReproductionBenchmark {
+    @Param({"100000", "1000000"})
+    public int population;
+
+    @Param({"tournament", "roulette"})
+    public String selection;
+
+    private IntSupplier workload;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = Workloads.create("reproduce:" + selection, population);
+    }
+
+    @Benchmark
+    public int reproduce() {
+        return workload.getAsInt();
+    }
+}
@@ -0,0 +1,48 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Combat and competition scores of a whole population: one call per
+ * creature against one BatchScorer pass on the scalar and the vector kernel.
+ * The forks add the jdk.incubator.vector module.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ScoringBenchmark {
+    @Param({"100000", "1000000"})
+    public int population;
+
+    @Param({"perCreature", "scalar", "vector"})
+    public String scorer;
+
+    private IntSupplier workload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workloads.create("scorePopulation:" + scorer, population);
+    }
+
+    @Benchmark
+    public int scorePopulation() {
+        return workload.getAsInt();
+    }
+}
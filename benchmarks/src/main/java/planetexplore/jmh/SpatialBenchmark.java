@@ -0,0 +1,66 @@
+package planetexplore.jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SpatialGrid: one movement tick of the whole population with the
+ * incremental re-filing, and one neighbor query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialBenchmark {
+
+    @State(Scope.Thread)
+    public static class Move {
+        @Param({"100000", "1000000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            workload = Workloads.create("gridMove", population);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Neighbors {
+        @Param({"100000", "1000000"})
+        public int population;
+
+        IntSupplier workload;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            workload = Workloads.create("gridNeighbors", population);
+        }
+    }
+
+    @Benchmark
+    public int moveAndUpdate(Move state) {
+        return state.workload.getAsInt();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int neighborQuery(Neighbors state) {
+        return state.workload.getAsInt();
+    }
+}
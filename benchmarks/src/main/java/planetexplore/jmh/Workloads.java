@@ -0,0 +1,33 @@
+package planetexplore.jmh;
+
+import java.lang.reflect.Method;
+import java.util.function.IntSupplier;
+
+/**
+ * Looks up workloads from the default-package SimulationWorkloads fixture,
+ * which named-package code can only reach reflectively. The reflective call
+ * happens in setup; measured code only invokes the returned supplier.
+ */
+final class Workloads {
+    static final long SEED = 20240601L;
+
+    private static final Method CREATE;
+    static {
+        try {
+            CREATE = Class.forName("SimulationWorkloads").getMethod("create", String.class, int.class, long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Workloads() {
+    }
+
+    static IntSupplier create(String name, int size) {
+        try {
+            return (IntSupplier) CREATE.invoke(null, name, size, SEED);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot build workload " + name, e);
+        }
+    }
+}